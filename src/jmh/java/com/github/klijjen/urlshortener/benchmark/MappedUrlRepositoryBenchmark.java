@@ -0,0 +1,70 @@
+package com.github.klijjen.urlshortener.benchmark;
+
+import com.github.klijjen.urlshortener.repository.MappedUrlRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Поиск во встроенном хранилище (профиль edge) на миллионе ссылок: попадание читает из журнала только URL,
+ * промах заканчивается на пустом слоте индекса. Куча при этом не зависит от числа ссылок:
+ *
+ * <pre>
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="MappedUrlRepository -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappedUrlRepositoryBenchmark {
+    private static final int LINKS = 1_000_000;
+
+    private Path directory;
+    private MappedUrlRepository repository;
+    private String[] codes;
+    private String[] missingCodes;
+    private Instant now;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("mapped-url-bench");
+        repository = new MappedUrlRepository(directory, LINKS, 64 << 20);
+        codes = new String[LINKS];
+        missingCodes = new String[LINKS];
+        for (int i = 0; i < LINKS; i++) {
+            codes[i] = "m" + Integer.toString(i, 36);
+            missingCodes[i] = "x" + Integer.toString(i, 36);
+            repository.insertDeduplicated(codes[i], "https://example.com/mapped/" + i);
+        }
+        now = Instant.now();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        repository.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Optional<String> lookupHit() {
+        return repository.findOriginalUrl(codes[ThreadLocalRandom.current().nextInt(LINKS)], now);
+    }
+
+    @Benchmark
+    public Optional<String> lookupMiss() {
+        return repository.findOriginalUrl(missingCodes[ThreadLocalRandom.current().nextInt(LINKS)], now);
+    }
+}
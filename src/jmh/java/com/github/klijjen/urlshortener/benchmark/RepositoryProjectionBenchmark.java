@@ -0,0 +1,91 @@
+package com.github.klijjen.urlshortener.benchmark;
+
+import com.github.klijjen.urlshortener.UrlShortenerApplication;
+import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.repository.UrlRecord;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.klijjen.urlshortener.Utils.hashUrl;
+
+/**
+ * Загрузка сущности UrlEntity против проекций на настоящем Hibernate и H2 в памяти.
+ * Выигрыш по памяти виден с профилировщиком GC (gc.alloc.rate.norm - байт на операцию):
+ *
+ * <pre>
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="RepositoryProjection -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryProjectionBenchmark {
+    private static final int LINKS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private UrlRepository urlRepository;
+    private String[] codes;
+    private String[] hashes;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:projection-bench;DB_CLOSE_DELAY=-1",
+                        "--app.short-code-filter.enabled=false",
+                        "--app.analytics.enabled=false",
+                        "--app.expiry.purge.enabled=false",
+                        "--app.migration.url-hash-backfill.enabled=false",
+                        "--logging.level.root=WARN");
+        urlRepository = context.getBean(UrlRepository.class);
+
+        List<UrlEntity> entities = new ArrayList<>(LINKS);
+        codes = new String[LINKS];
+        hashes = new String[LINKS];
+        for (int i = 0; i < LINKS; i++) {
+            String url = "https://example.com/projection/" + i;
+            codes[i] = "p" + i;
+            hashes[i] = hashUrl(url);
+            entities.add(new UrlEntity(url, codes[i], hashes[i]));
+        }
+        urlRepository.saveAll(entities);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<UrlEntity> lookupEntity() {
+        return urlRepository.findByShortCode(codes[ThreadLocalRandom.current().nextInt(LINKS)]);
+    }
+
+    @Benchmark
+    public Optional<UrlRecord> lookupProjection() {
+        return urlRepository.findRecordByShortCode(codes[ThreadLocalRandom.current().nextInt(LINKS)]);
+    }
+
+    @Benchmark
+    public Optional<UrlEntity> dedupEntity() {
+        return urlRepository.findByUrlHash(hashes[ThreadLocalRandom.current().nextInt(LINKS)]);
+    }
+
+    @Benchmark
+    public Optional<String> dedupProjection() {
+        return urlRepository.findShortCodeByUrlHash(hashes[ThreadLocalRandom.current().nextInt(LINKS)]);
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.klijjen.urlshortener.benchmark;
+
+import com.github.klijjen.urlshortener.cache.ShortCodeFilter;
+import com.github.klijjen.urlshortener.config.ShortCodeFilterConfig;
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import com.github.klijjen.urlshortener.service.generator.BlockShortCodeGenerator;
+import com.github.klijjen.urlshortener.service.generator.CodeBlockAllocator;
+import com.github.klijjen.urlshortener.service.generator.RandomShortCodeGenerator;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeEncoder;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Генерация короткого кода при разной заполненности пространства кодов.
+ * Занятость моделируется детерминированно по хэшу кода: доля fillLevel всех кодов считается существующей.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShortCodeGenerationBenchmark {
+
+    @Param({"random", "block"})
+    public String generator;
+
+    @Param({"0.0", "0.5", "0.9"})
+    public double fillLevel;
+
+    @Param({"6"})
+    public int length;
+
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Setup
+    public void setUp() {
+        UrlShortenerConfig config = new UrlShortenerConfig();
+        config.setMaxAttempts(1000);
+        ShortCodeEncoder encoder = new ShortCodeEncoder(config);
+        int threshold = (int) (fillLevel * 1000);
+
+        if ("block".equals(generator)) {
+            AtomicLong sequence = new AtomicLong();
+            CodeBlockAllocator allocator = new CodeBlockAllocator(null, null) {
+                @Override
+                public long allocate(String sequenceName, int size) {
+                    return sequence.getAndAdd(size);
+                }
+            };
+            shortCodeGenerator = new BlockShortCodeGenerator(allocator, encoder, config);
+        } else {
+            shortCodeGenerator = new RandomShortCodeGenerator(
+                    StubUrlRepository.create(Map.of(), code -> Math.floorMod(code.hashCode(), 1000) < threshold),
+                    new ShortCodeFilter(new ShortCodeFilterConfig()), encoder, config, new SimpleMeterRegistry());
+        }
+    }
+
+    @Benchmark
+    public String generateUniqueShortCode() {
+        return shortCodeGenerator.generate(length);
+    }
+}
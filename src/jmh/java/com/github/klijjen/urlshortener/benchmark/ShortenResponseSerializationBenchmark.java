@@ -0,0 +1,31 @@
+package com.github.klijjen.urlshortener.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответа POST /shorten в том виде, в котором его собирает UrlController.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShortenResponseSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    public byte[] serializeShortenResponse() throws JsonProcessingException {
+        Map<String, String> response = new HashMap<>();
+        response.put("shortUrl", "http://localhost:8080/abc123");
+        response.put("originalUrl", "https://example.com/very/long/url?with=query&and=parameters");
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.klijjen.urlshortener.benchmark;
+
+import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.repository.UrlRecord;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Заглушка UrlRepository без базы данных: бенчмарки измеряют стоимость кода сервиса, а не SQL.
+ */
+final class StubUrlRepository {
+
+    private StubUrlRepository() {
+    }
+
+    static UrlRepository create(Map<String, UrlEntity> byShortCode, Predicate<String> occupied) {
+        return (UrlRepository) Proxy.newProxyInstance(
+                UrlRepository.class.getClassLoader(),
+                new Class<?>[]{UrlRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByShortCode" -> Optional.ofNullable(byShortCode.get((String) args[0]));
+                    case "findRecordByShortCode", "findRecordByShortCodeOnPrimary" -> Optional.ofNullable(byShortCode.get((String) args[0]))
+                            .map(entity -> new UrlRecord(entity.getShortCode(), entity.getOriginalUrl(), entity.getExpiresAt()));
+                    case "existsByShortCode" -> occupied.test((String) args[0]);
+                    case "findExistingShortCodes" -> ((Collection<?>) args[0]).stream()
+                            .map(String.class::cast).filter(occupied).toList();
+                    case "findByUrlHash", "findShortCodeByUrlHash" -> Optional.empty();
+                    case "findByUrlHashIn" -> List.of();
+                    case "save" -> args[0];
+                    case "saveAll" -> args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubUrlRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.klijjen.urlshortener.benchmark;
+
+import com.github.klijjen.urlshortener.cache.ShortCodeFilter;
+import com.github.klijjen.urlshortener.cache.UrlCache;
+import com.github.klijjen.urlshortener.config.ShortCodeFilterConfig;
+import com.github.klijjen.urlshortener.config.UrlCacheConfig;
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.service.ShortenValidator;
+import com.github.klijjen.urlshortener.service.UrlServiceImpl;
+import com.github.klijjen.urlshortener.service.generator.RandomShortCodeGenerator;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getOriginalUrl с кэшем на упакованных кодах (packed), на ConcurrentHashMap (map) и без кэша (off).
+ * Репозиторий отвечает из памяти, поэтому разница показывает только накладные расходы кэша,
+ * а не экономию на запросах к базе.
+ * getOriginalUrlMiss ищет несуществующие коды, которые отсекает фильтр коротких кодов.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlLookupBenchmark {
+    private static final int LINKS = 10_000;
+
+    @Param({"packed", "map", "off"})
+    public String cache;
+
+    private UrlServiceImpl urlService;
+    private String[] codes;
+    private String[] missingCodes;
+
+    @Setup
+    public void setUp() {
+        UrlShortenerConfig config = new UrlShortenerConfig();
+        UrlCacheConfig cacheConfig = new UrlCacheConfig();
+        cacheConfig.setEnabled(!"off".equals(cache));
+        cacheConfig.setPackedKeys("packed".equals(cache));
+
+        Map<String, UrlEntity> entities = new HashMap<>();
+        codes = new String[LINKS];
+        missingCodes = new String[LINKS];
+        ShortCodeEncoder encoder = new ShortCodeEncoder(config);
+        ShortCodeFilterConfig filterConfig = new ShortCodeFilterConfig();
+        filterConfig.setEnabled(true);
+        ShortCodeFilter filter = new ShortCodeFilter(filterConfig);
+        for (int i = 0; i < LINKS; i++) {
+            codes[i] = encoder.encode(i, 6);
+            missingCodes[i] = encoder.encode(LINKS + i, 6);
+            entities.put(codes[i], new UrlEntity("https://example.com/" + i, codes[i]));
+            filter.add(codes[i]);
+        }
+        filter.markLoaded();
+
+        var repository = StubUrlRepository.create(entities, entities::containsKey);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        urlService = new UrlServiceImpl(repository, config, new UrlCache(cacheConfig), filter,
+                new RandomShortCodeGenerator(repository, filter, encoder, config, meterRegistry),
+                new ShortenValidator(config, meterRegistry), meterRegistry);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<String> getOriginalUrl() {
+        return urlService.getOriginalUrl(codes[ThreadLocalRandom.current().nextInt(LINKS)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Optional<String> getOriginalUrlMiss() {
+        return urlService.getOriginalUrl(missingCodes[ThreadLocalRandom.current().nextInt(LINKS)]);
+    }
+}
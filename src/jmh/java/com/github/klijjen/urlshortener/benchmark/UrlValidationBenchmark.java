@@ -0,0 +1,61 @@
+package com.github.klijjen.urlshortener.benchmark;
+
+import com.github.klijjen.urlshortener.UrlCanonicalizer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Проверка URL при сокращении: прежние три шага (@Pattern на DTO, длина и пустота в валидаторе,
+ * разбор java.net.URI) против одного прохода {@link UrlCanonicalizer}, который еще и приводит URL к каноническому виду.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlValidationBenchmark {
+    private static final Pattern SCHEME = Pattern.compile("^(https?|ftp)://.*");
+
+    private final String[] urls = {
+            "https://example.com",
+            "http://Example.com:80/path/to/resource?query=value&other=1#fragment",
+            "ftp://files.example.com/pub/file.txt",
+            "https://example.com/" + "segment/".repeat(50),
+            "not-a-valid-url",
+    };
+
+    @Benchmark
+    public void threeStep(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(SCHEME.matcher(url).matches()
+                    && !url.trim().isEmpty()
+                    && url.length() <= 2048
+                    && isValidUri(url));
+        }
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(url.length() <= 2048 ? UrlCanonicalizer.canonicalize(url) : null);
+        }
+    }
+
+    private static boolean isValidUri(String url) {
+        try {
+            String scheme = new URI(url).getScheme();
+            return scheme != null &&
+                    (scheme.equalsIgnoreCase("http") ||
+                            scheme.equalsIgnoreCase("https") ||
+                            scheme.equalsIgnoreCase("ftp"));
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+}
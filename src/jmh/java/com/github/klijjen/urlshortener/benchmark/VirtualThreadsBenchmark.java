@@ -0,0 +1,207 @@
+package com.github.klijjen.urlshortener.benchmark;
+
+import com.github.klijjen.urlshortener.UrlShortenerApplication;
+import com.github.klijjen.urlshortener.service.ShortenCommand;
+import com.github.klijjen.urlshortener.service.ShortenResult;
+import com.github.klijjen.urlshortener.service.UrlService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сравнение пропускной способности редиректов на потоках платформы и виртуальных потоках.
+ * Запускает приложение дважды в одном процессе и нагружает GET /{shortCode} с заданным числом
+ * одновременных запросов. Кэш отключен, а к каждому SQL-запросу добавляется задержка,
+ * имитирующая сетевую базу данных: без нее H2 в памяти не блокирует потоки и разницы не видно.
+ *
+ * <pre>
+ * JAVA_HOME=/path/to/jdk21 ./mvnw -q -Pjmh test-compile exec:java \
+ *     -Dexec.mainClass=com.github.klijjen.urlshortener.benchmark.VirtualThreadsBenchmark
+ * </pre>
+ *
+ * Параметры: -Dbench.concurrency (1000), -Dbench.seconds (20), -Dbench.db-latency-ms (20), -Dbench.pool-size (400).
+ */
+public class VirtualThreadsBenchmark {
+    private static final int LINKS = 1000;
+    private static final int WARMUP_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("bench.concurrency", 1000);
+        int seconds = Integer.getInteger("bench.seconds", 20);
+        int dbLatencyMs = Integer.getInteger("bench.db-latency-ms", 20);
+        int poolSize = Integer.getInteger("bench.pool-size", 400);
+
+        System.out.printf("Java %s, одновременных запросов: %d, задержка БД: %d мс, пул соединений: %d%n",
+                Runtime.version(), concurrency, dbLatencyMs, poolSize);
+        if (Runtime.version().feature() < 21) {
+            System.out.println("Виртуальные потоки требуют Java 21: второй прогон будет выполнен на потоках платформы");
+        }
+
+        for (boolean virtual : new boolean[]{false, true}) {
+            // Аргументы командной строки, а не properties(): они должны перекрывать application.properties
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+                    .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new LatencyInjector(dbLatencyMs)))
+                    .run(
+                            "--server.port=0",
+                            "--spring.datasource.url=jdbc:h2:mem:bench-" + virtual + ";DB_CLOSE_DELAY=-1",
+                            "--spring.threads.virtual.enabled=" + virtual,
+                            "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                            "--spring.jpa.show-sql=false",
+                            "--app.cache.enabled=false",
+                            "--app.analytics.enabled=false",
+                            "--logging.level.root=WARN");
+            try {
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                List<String> codes = seed(context.getBean(UrlService.class));
+                // Прогрев: JIT и создание потоков Tomcat не должны попадать в измерение
+                run(port, codes, concurrency, Duration.ofSeconds(WARMUP_SECONDS));
+                Result result = run(port, codes, concurrency, Duration.ofSeconds(seconds));
+                System.out.printf("%-10s %10.0f req/s   p50 %4d мс   p99 %4d мс   ошибок %d%n",
+                        virtual ? "virtual" : "platform", result.throughput, result.p50, result.p99, result.errors);
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private static List<String> seed(UrlService urlService) {
+        List<ShortenCommand> commands = new ArrayList<>(LINKS);
+        for (int i = 0; i < LINKS; i++) {
+            commands.add(new ShortenCommand("https://example.com/bench/" + i, null));
+        }
+        List<String> codes = new ArrayList<>(LINKS);
+        for (ShortenResult result : urlService.shortenUrls(commands)) {
+            codes.add(result.shortUrl().substring(result.shortUrl().lastIndexOf('/') + 1));
+        }
+        return codes;
+    }
+
+    private static Result run(int port, List<String> codes, int concurrency, Duration duration) throws InterruptedException {
+        // Потоки пула не демоны: без shutdown процесс exec:java не завершится после вывода результатов
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .executor(executor)
+                    .build();
+            Semaphore inFlight = new Semaphore(concurrency);
+            LongAdder completed = new LongAdder();
+            LongAdder errors = new LongAdder();
+            AtomicLongArray latencyHistogram = new AtomicLongArray(10_001);
+
+            long start = System.nanoTime();
+            long deadline = start + duration.toNanos();
+            while (System.nanoTime() < deadline) {
+                inFlight.acquire();
+                String code = codes.get(ThreadLocalRandom.current().nextInt(codes.size()));
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/" + code)).build();
+                long sent = System.nanoTime();
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                    if (error != null || response.statusCode() != 302) {
+                        errors.increment();
+                    } else {
+                        int millis = (int) Math.min(10_000, (System.nanoTime() - sent) / 1_000_000);
+                        latencyHistogram.incrementAndGet(millis);
+                        completed.increment();
+                    }
+                    inFlight.release();
+                });
+            }
+            inFlight.acquire(concurrency);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            return new Result(completed.sum() / elapsedSeconds,
+                    percentile(latencyHistogram, completed.sum(), 0.50),
+                    percentile(latencyHistogram, completed.sum(), 0.99),
+                    errors.sum());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int percentile(AtomicLongArray histogram, long total, double quantile) {
+        long threshold = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int millis = 0; millis < histogram.length(); millis++) {
+            seen += histogram.get(millis);
+            if (seen >= threshold) {
+                return millis;
+            }
+        }
+        return histogram.length() - 1;
+    }
+
+    private record Result(double throughput, int p50, int p99, long errors) {
+    }
+
+    /**
+     * Оборачивает DataSource так, что каждое выполнение PreparedStatement ждет заданное время.
+     */
+    private record LatencyInjector(int latencyMs) implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && latencyMs > 0) {
+                return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    return result instanceof Connection connection ? proxy(Connection.class, connection, this::wrapStatement) : result;
+                });
+            }
+            return bean;
+        }
+
+        private Object wrapStatement(Object target, Method method, Object[] args) throws Throwable {
+            Object result = invoke(target, method, args);
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement, (stmt, stmtMethod, stmtArgs) -> {
+                    if (stmtMethod.getName().startsWith("execute")) {
+                        Thread.sleep(latencyMs);
+                    }
+                    return invoke(stmt, stmtMethod, stmtArgs);
+                });
+            }
+            return result;
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, TargetHandler handler) {
+            InvocationHandler invocationHandler = (p, method, args) -> handler.handle(target, method, args);
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+        }
+    }
+
+    @FunctionalInterface
+    private interface TargetHandler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
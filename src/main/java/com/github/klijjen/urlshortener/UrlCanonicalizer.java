@@ -0,0 +1,274 @@
+package com.github.klijjen.urlshortener;
+
+/**
+ * Проверка и приведение URL к каноническому виду за один проход (RFC 3986, разделы 6.2.2-6.2.3):
+ * схема и хост - в нижнем регистре, порт по умолчанию (80, 443, 21) и пустой порт убираются, в %XX - шестнадцатеричные
+ * цифры в верхнем регистре, закодированные незарезервированные символы (буквы, цифры, "-._~") раскодируются,
+ * пустой путь заменяется на "/". Так HTTP://Example.com:80 и http://example.com/ дают одну строку для дедупликации.
+ * <p>
+ * Допускаются абсолютные URL http, https и ftp с непустым хостом. Символы вне ASCII допускаются, как и в
+ * java.net.URI; пробелы, управляющие символы и ASCII-символы, которые должны быть закодированы, - нет.
+ * Результат собирается только с первого изменения: уже канонический URL возвращается тем же объектом.
+ */
+public final class UrlCanonicalizer {
+    private static final byte UNRESERVED = 1;
+    private static final byte SUB_DELIM = 2;
+    private static final byte HEX = 4;
+    private static final byte[] CHARS = new byte[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHARS[c] = UNRESERVED;
+            CHARS[Character.toUpperCase(c)] = UNRESERVED;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CHARS[c] = UNRESERVED | HEX;
+        }
+        for (char c = 'a'; c <= 'f'; c++) {
+            CHARS[c] |= HEX;
+            CHARS[Character.toUpperCase(c)] |= HEX;
+        }
+        for (char c : "-._~".toCharArray()) {
+            CHARS[c] = UNRESERVED;
+        }
+        for (char c : "!$&'()*+,;=".toCharArray()) {
+            CHARS[c] = SUB_DELIM;
+        }
+    }
+
+    private final String url;
+    // null, пока результат совпадает с началом url
+    private char[] out;
+    private int length;
+    private int position;
+
+    private UrlCanonicalizer(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Канонический вид URL или null, если URL недопустим.
+     */
+    public static String canonicalize(String url) {
+        return url != null ? new UrlCanonicalizer(url).parse() : null;
+    }
+
+    public static boolean isValid(String url) {
+        return canonicalize(url) != null;
+    }
+
+    private String parse() {
+        int defaultPort = scheme();
+        if (defaultPort < 0 || !url.startsWith("//", position)) {
+            return null;
+        }
+        copy();
+        copy();
+        if (!authority(defaultPort)) {
+            return null;
+        }
+        if (position == url.length() || url.charAt(position) != '/') {
+            insert('/');
+        }
+        if (!component("/:@", false)) {
+            return null;
+        }
+        if (position < url.length() && url.charAt(position) == '?') {
+            copy();
+            if (!component("/:@?", false)) {
+                return null;
+            }
+        }
+        if (position < url.length() && url.charAt(position) == '#') {
+            copy();
+            if (!component("/:@?", false)) {
+                return null;
+            }
+        }
+        if (position != url.length()) {
+            return null;
+        }
+        return out == null ? url : new String(out, 0, length);
+    }
+
+    /**
+     * Схема с ':' в нижнем регистре; порт по умолчанию для нее или -1.
+     */
+    private int scheme() {
+        int end = url.indexOf(':');
+        int defaultPort;
+        if (end == 4 && url.regionMatches(true, 0, "http", 0, 4)) {
+            defaultPort = 80;
+        } else if (end == 5 && url.regionMatches(true, 0, "https", 0, 5)) {
+            defaultPort = 443;
+        } else if (end == 3 && url.regionMatches(true, 0, "ftp", 0, 3)) {
+            defaultPort = 21;
+        } else {
+            return -1;
+        }
+        while (position < end) {
+            emit(toLowerCase(url.charAt(position++)));
+        }
+        copy();
+        return defaultPort;
+    }
+
+    private boolean authority(int defaultPort) {
+        int end = position;
+        while (end < url.length() && "/?#".indexOf(url.charAt(end)) < 0) {
+            end++;
+        }
+        int at = url.indexOf('@', position);
+        if (at >= 0 && at < end) {
+            if (!component(":", false) || position != at) {
+                return false;
+            }
+            copy();
+        }
+
+        int hostStart = length;
+        if (position < end && url.charAt(position) == '[') {
+            // IP-литерал: [IPv6] или [vX.…]
+            copy();
+            while (position < end && url.charAt(position) != ']') {
+                char c = url.charAt(position);
+                if (c >= 0x80 || !(is(c, UNRESERVED | SUB_DELIM) || c == ':')) {
+                    return false;
+                }
+                position++;
+                emit(toLowerCase(c));
+            }
+            if (position == end) {
+                return false;
+            }
+            copy();
+        } else if (!component("", true)) {
+            return false;
+        }
+        if (length == hostStart) {
+            return false;
+        }
+
+        if (position < end) {
+            if (url.charAt(position) != ':') {
+                return false;
+            }
+            int portStart = position + 1;
+            int port = 0;
+            for (int i = portStart; i < end; i++) {
+                char c = url.charAt(i);
+                if (c < '0' || c > '9' || (port = port * 10 + (c - '0')) > 65535) {
+                    return false;
+                }
+            }
+            if (portStart == end || port == defaultPort) {
+                skip(end);
+            } else {
+                while (position < end) {
+                    copy();
+                }
+            }
+        }
+        return position == end;
+    }
+
+    /**
+     * Символы компонента до первого разделителя, не входящего в extra: незарезервированные, sub-delims,
+     * символы extra, %XX и символы вне ASCII. Хост (host == true) приводится к нижнему регистру и не может
+     * содержать ':' - на нем начинается порт.
+     */
+    private boolean component(String extra, boolean host) {
+        while (position < url.length()) {
+            char c = url.charAt(position);
+            if (c == '%') {
+                if (!percentEncoded(host)) {
+                    return false;
+                }
+            } else if (c < 0x80 ? is(c, UNRESERVED | SUB_DELIM) : !Character.isISOControl(c) && !Character.isSpaceChar(c)) {
+                position++;
+                emit(host ? toLowerCase(c) : c);
+            } else if (c < 0x80 && extra.indexOf(c) >= 0) {
+                position++;
+                emit(c);
+            } else {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    private boolean percentEncoded(boolean host) {
+        if (position + 2 >= url.length()) {
+            return false;
+        }
+        char high = url.charAt(position + 1);
+        char low = url.charAt(position + 2);
+        if (high >= 0x80 || low >= 0x80 || !is(high, HEX) || !is(low, HEX)) {
+            return false;
+        }
+        char decoded = (char) (Character.digit(high, 16) << 4 | Character.digit(low, 16));
+        if (decoded < 0x80 && is(decoded, UNRESERVED)) {
+            skip(position + 3);
+            emit(host ? toLowerCase(decoded) : decoded);
+        } else {
+            position++;
+            emit('%');
+            position++;
+            emit(toUpperCase(high));
+            position++;
+            emit(toUpperCase(low));
+        }
+        return true;
+    }
+
+    private static boolean is(char c, int classes) {
+        return (CHARS[c] & classes) != 0;
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static char toUpperCase(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    private void copy() {
+        position++;
+        emit(url.charAt(position - 1));
+    }
+
+    /**
+     * Дописывает символ, полученный из url[position - 1]; пока он совпадает с исходным, ничего не копируется.
+     */
+    private void emit(char c) {
+        if (out == null) {
+            if (length == position - 1 && url.charAt(length) == c) {
+                length++;
+                return;
+            }
+            materialize();
+        }
+        out[length++] = c;
+    }
+
+    private void insert(char c) {
+        if (out == null) {
+            materialize();
+        }
+        out[length++] = c;
+    }
+
+    private void skip(int to) {
+        if (out == null) {
+            materialize();
+        }
+        position = to;
+    }
+
+    private void materialize() {
+        // Результат не длиннее url, кроме вставленного "/" пустого пути
+        out = new char[url.length() + 1];
+        url.getChars(0, length, out, 0);
+    }
+}
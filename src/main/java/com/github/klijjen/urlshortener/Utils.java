@@ -1,24 +1,59 @@
 package com.github.klijjen.urlshortener;
 
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Utils {
-    public static UUID getRandomUUID() {
-        return UUID.randomUUID();
+    // Миллисекунды последнего выданного UUIDv7, сдвинутые на 12 бит, плюс счетчик внутри миллисекунды
+    private static final AtomicLong lastTimeOrderedStamp = new AtomicLong();
+
+    /**
+     * UUIDv7 (RFC 9562): 48 бит времени в миллисекундах, 12 бит счетчика и 62 случайных бита.
+     * Идентификаторы, выданные процессом, строго возрастают, поэтому вставки идут в конец индекса первичного ключа.
+     * Случайная часть берется из ThreadLocalRandom без общей блокировки SecureRandom: идентификатор не секрет
+     * и наружу не выдается, уникальность обеспечивают время и счетчик.
+     */
+    public static UUID getTimeOrderedUUID() {
+        long now = System.currentTimeMillis() << 12;
+        // Больше 4096 идентификаторов за миллисекунду - счетчик переходит в следующую
+        long stamp = lastTimeOrderedStamp.updateAndGet(last -> Math.max(last + 1, now));
+        return timeOrderedUUID(stamp);
+    }
+
+    /**
+     * UUIDv7 с заданным временем для существующих записей; порядок внутри миллисекунды случайный.
+     */
+    public static UUID getTimeOrderedUUID(Instant time) {
+        return timeOrderedUUID(time.toEpochMilli() << 12 | ThreadLocalRandom.current().nextInt(1 << 12));
+    }
+
+    private static UUID timeOrderedUUID(long stamp) {
+        long mostSigBits = (stamp >>> 12) << 16 | 0x7000L | (stamp & 0xFFFL);
+        long leastSigBits = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
     }
 
     public static boolean isValidUrl(String url) {
+        return UrlCanonicalizer.isValid(url);
+    }
+
+    public static String normalizeUrl(String url) {
+        return url.trim();
+    }
+
+    public static String hashUrl(String url) {
         try {
-            URI uri = new URI(url);
-            String scheme = uri.getScheme();
-            return scheme != null &&
-                    (scheme.equalsIgnoreCase("http") ||
-                            scheme.equalsIgnoreCase("https") ||
-                            scheme.equalsIgnoreCase("ftp"));
-        } catch (URISyntaxException e) {
-            return false;
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(normalizeUrl(url).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Алгоритм SHA-256 недоступен", e);
         }
     }
 }
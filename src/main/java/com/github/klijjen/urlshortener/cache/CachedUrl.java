@@ -0,0 +1,18 @@
+package com.github.klijjen.urlshortener.cache;
+
+import java.time.Instant;
+
+/**
+ * Значение, загружаемое в {@link UrlCache}: оригинальный URL, момент истечения ссылки (null - бессрочная),
+ * код ответа редиректа (null - код по умолчанию) и признак учета переходов (null - по коду редиректа).
+ */
+public record CachedUrl(String originalUrl, Instant expiresAt, Integer redirectStatus, Boolean analytics) {
+
+    public CachedUrl(String originalUrl, Instant expiresAt) {
+        this(originalUrl, expiresAt, null, null);
+    }
+
+    public static CachedUrl permanent(String originalUrl) {
+        return new CachedUrl(originalUrl, null, null, null);
+    }
+}
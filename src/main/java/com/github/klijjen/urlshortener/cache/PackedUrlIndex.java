@@ -0,0 +1,409 @@
+package com.github.klijjen.urlshortener.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Хранилище {@link UrlCache} на примитивных массивах: короткий код, упакованный в long, -> URL в общем массиве байтов.
+ * Код до {@value #MAX_PACKED_LENGTH} символов из [0-9a-zA-Z_-] занимает по 6 бит на символ, длина - старшие 4 бита.
+ * Таблица с открытой адресацией (линейное пробирование) хранит в слоте ключ и второй long со смещением URL
+ * и сроком жизни записи: 16 байт на слот без объектов на запись. URL лежат в arena в UTF-8 с заголовком (int):
+ * длина URL в младших 24 битах, код редиректа минус 300 в следующих 4 (0 - по умолчанию), учет переходов в следующих 2
+ * (0 - по коду редиректа, 1 - выключен, 2 - включен), в старшем бите - признак срока действия ссылки, который тогда
+ * следует за заголовком (long, миллисекунды эпохи).
+ * <p>
+ * Срок жизни хранится в секундах от создания индекса с округлением вниз: запись истекает не позже заданного,
+ * записи со сроком меньше секунды не сохраняются.
+ * <p>
+ * Запись выполняется под блокировкой, чтение - оптимистично, без блокировки: результат проверяется по штампу
+ * и при конкурентной записи читается повторно под блокировкой чтения. Байты URL не перезаписываются на месте:
+ * при переполнении arena уплотняется в новый массив, поэтому читатель со старым массивом видит целые данные.
+ */
+final class PackedUrlIndex {
+    static final int MAX_PACKED_LENGTH = 10;
+    static final long NOT_PACKABLE = 0;
+    // Закэшированное отсутствие кода
+    static final CachedUrl MISSING = new CachedUrl(null, null);
+
+    private static final String SYMBOLS = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ-_";
+    private static final byte[] DIGITS = new byte[128];
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long MAX_SECONDS = 0xFFFFFFFFL;
+    private static final int HEADER = 4;
+    private static final int EXPIRES_AT = 8;
+    private static final int MAX_URL_LENGTH = 0xFFFFFF;
+    private static final int MAX_ARENA_SIZE = Integer.MAX_VALUE - 8;
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < SYMBOLS.length(); i++) {
+            DIGITS[SYMBOLS.charAt(i)] = (byte) i;
+        }
+    }
+
+    /**
+     * Обход живых записей с URL.
+     */
+    interface EntryVisitor {
+        void visit(long key, CachedUrl value, long remainingNanos);
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private final long createdAt;
+    private long[] keys = new long[16];
+    // Смещение URL в arena + 1 в старших 32 битах (0 - отсутствующий код), срок жизни в секундах - в младших
+    private long[] entries = new long[16];
+    private volatile int size;
+
+    private byte[] arena;
+    private int arenaEnd;
+    private long liveBytes;
+
+    // Ключи в порядке добавления для вытеснения старейших: кольцевой буфер
+    private long[] order = new long[16];
+    private int orderHead;
+
+    PackedUrlIndex(int initialArenaSize) {
+        this.arena = new byte[Math.max(16, initialArenaSize)];
+        this.createdAt = System.nanoTime();
+    }
+
+    /**
+     * Код в виде ключа индекса или {@link #NOT_PACKABLE}, если код длиннее или содержит другие символы.
+     */
+    static long pack(String shortCode) {
+        int length = shortCode.length();
+        if (length == 0 || length > MAX_PACKED_LENGTH) {
+            return NOT_PACKABLE;
+        }
+        long key = (long) length << 60;
+        for (int i = 0; i < length; i++) {
+            char c = shortCode.charAt(i);
+            int digit = c < DIGITS.length ? DIGITS[c] : -1;
+            if (digit < 0) {
+                return NOT_PACKABLE;
+            }
+            key |= (long) digit << (6 * i);
+        }
+        return key;
+    }
+
+    static String unpack(long key) {
+        int length = (int) (key >>> 60);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = SYMBOLS.charAt((int) (key >>> (6 * i)) & 0x3F);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Запись, живая на момент now (System.nanoTime); {@link #MISSING} для отрицательной записи, null - записи нет.
+     */
+    CachedUrl get(long key, long now) {
+        long seconds = seconds(now - createdAt);
+        long stamp = lock.tryOptimisticRead();
+        CachedUrl value = read(key, seconds);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+        stamp = lock.readLock();
+        try {
+            return read(key, seconds);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // При оптимистичном чтении массивы могут меняться параллельно: любые границы проверяются, результат - по штампу
+    private CachedUrl read(long key, long now) {
+        long[] keys = this.keys;
+        long[] entries = this.entries;
+        byte[] arena = this.arena;
+        if (entries.length != keys.length) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        int slot = home(key) & mask;
+        for (int probes = 0; probes < keys.length; probes++) {
+            long current = keys[slot];
+            if (current == 0) {
+                return null;
+            }
+            if (current == key) {
+                long entry = entries[slot];
+                if ((entry & MAX_SECONDS) <= now) {
+                    return null;
+                }
+                int offset = (int) (entry >>> 32) - 1;
+                if (offset < 0) {
+                    return MISSING;
+                }
+                if (offset > arena.length - HEADER || recordSize(arena, offset) > arena.length - offset) {
+                    return null;
+                }
+                return valueAt(arena, offset);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Сохраняет запись на ttl наносекунд от now (System.nanoTime); value == null - отрицательная запись.
+     *
+     * @return true, если код добавлен, а не обновлен
+     */
+    boolean put(long key, CachedUrl value, long now, long ttl) {
+        byte[] record = value != null ? encode(value) : null;
+        long elapsed = now - createdAt;
+        long deadline = seconds(elapsed > Long.MAX_VALUE - ttl ? Long.MAX_VALUE : elapsed + ttl);
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(key);
+            boolean added = keys[slot] == 0;
+            if (added) {
+                keys[slot] = key;
+                entries[slot] = 0;
+                size++;
+                enqueue(key);
+            }
+            // Тот же URL только продлевается; другой заменяет прежний: код истекшей ссылки мог быть выдан заново
+            long offset = entries[slot] >>> 32;
+            if (offset != 0 && (record == null || !recordEquals((int) offset - 1, record))) {
+                liveBytes -= recordSize(arena, (int) offset - 1);
+                offset = 0;
+                entries[slot] = 0;
+            }
+            if (record != null && offset == 0) {
+                offset = append(record) + 1L;
+            }
+            entries[slot] = offset << 32 | deadline;
+            if (size > keys.length - (keys.length >>> 2)) {
+                rehash(keys.length * 2);
+            }
+            return added;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Удаляет самый старый по времени добавления код.
+     *
+     * @return false, если индекс пуст
+     */
+    boolean evictEldest() {
+        long stamp = lock.writeLock();
+        try {
+            if (size == 0) {
+                return false;
+            }
+            long key = order[orderHead];
+            orderHead = (orderHead + 1) & (order.length - 1);
+            removeAt(slotOf(key));
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Обходит записи с URL, живые на момент now, под блокировкой чтения; отрицательные записи пропускаются.
+     */
+    void forEach(long now, EntryVisitor visitor) {
+        long elapsed = now - createdAt;
+        long stamp = lock.readLock();
+        try {
+            for (int slot = 0; slot < keys.length; slot++) {
+                long entry = entries[slot];
+                long remaining = (entry & MAX_SECONDS) * NANOS_PER_SECOND - elapsed;
+                int offset = (int) (entry >>> 32) - 1;
+                if (keys[slot] != 0 && offset >= 0 && remaining > 0) {
+                    visitor.visit(keys[slot], valueAt(arena, offset), remaining);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(0, Math.min(MAX_SECONDS, Math.floorDiv(nanos, NANOS_PER_SECOND)));
+    }
+
+    private static byte[] encode(CachedUrl value) {
+        byte[] url = value.originalUrl().getBytes(StandardCharsets.UTF_8);
+        if (url.length > MAX_URL_LENGTH) {
+            throw new IllegalArgumentException("URL длиннее " + MAX_URL_LENGTH + " байт");
+        }
+        int header = url.length;
+        if (value.redirectStatus() != null) {
+            header |= (value.redirectStatus() - 300 & 0xF) << 24;
+        }
+        if (value.analytics() != null) {
+            header |= (value.analytics() ? 2 : 1) << 28;
+        }
+        int position = HEADER;
+        byte[] record;
+        if (value.expiresAt() != null) {
+            header |= Integer.MIN_VALUE;
+            record = new byte[HEADER + EXPIRES_AT + url.length];
+            long expiresAt = value.expiresAt().toEpochMilli();
+            for (int i = 0; i < EXPIRES_AT; i++) {
+                record[position++] = (byte) (expiresAt >>> (56 - 8 * i));
+            }
+        } else {
+            record = new byte[HEADER + url.length];
+        }
+        for (int i = 0; i < HEADER; i++) {
+            record[i] = (byte) (header >>> (24 - 8 * i));
+        }
+        System.arraycopy(url, 0, record, position, url.length);
+        return record;
+    }
+
+    private static CachedUrl valueAt(byte[] arena, int offset) {
+        int header = intAt(arena, offset);
+        int status = header >>> 24 & 0xF;
+        int analytics = header >>> 28 & 0x3;
+        int position = offset + HEADER;
+        Instant expiresAt = null;
+        if (header < 0) {
+            expiresAt = Instant.ofEpochMilli((long) intAt(arena, position) << 32 | intAt(arena, position + 4) & 0xFFFFFFFFL);
+            position += EXPIRES_AT;
+        }
+        String url = new String(arena, position, header & MAX_URL_LENGTH, StandardCharsets.UTF_8);
+        return new CachedUrl(url, expiresAt, status != 0 ? 300 + status : null, analytics != 0 ? analytics == 2 : null);
+    }
+
+    private static int recordSize(byte[] arena, int offset) {
+        int header = intAt(arena, offset);
+        return HEADER + (header < 0 ? EXPIRES_AT : 0) + (header & MAX_URL_LENGTH);
+    }
+
+    private boolean recordEquals(int offset, byte[] record) {
+        return recordSize(arena, offset) == record.length
+                && Arrays.equals(arena, offset, offset + record.length, record, 0, record.length);
+    }
+
+    private static int intAt(byte[] arena, int offset) {
+        return (arena[offset] & 0xFF) << 24 | (arena[offset + 1] & 0xFF) << 16
+                | (arena[offset + 2] & 0xFF) << 8 | (arena[offset + 3] & 0xFF);
+    }
+
+    private static int home(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = home(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Удаление со сдвигом следующих записей цепочки назад: таблица обходится без надгробий
+    private void removeAt(int slot) {
+        long offset = entries[slot] >>> 32;
+        if (offset != 0) {
+            liveBytes -= recordSize(arena, (int) offset - 1);
+        }
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != 0) {
+            int home = home(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                entries[gap] = entries[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = 0;
+        entries[gap] = 0;
+        size--;
+    }
+
+    private void enqueue(long key) {
+        // В очереди ровно те коды, что есть в таблице; size уже учитывает новый код
+        if (size > order.length) {
+            long[] grown = new long[order.length * 2];
+            for (int i = 0; i < order.length; i++) {
+                grown[i] = order[(orderHead + i) & (order.length - 1)];
+            }
+            order = grown;
+            orderHead = 0;
+        }
+        order[(orderHead + size - 1) & (order.length - 1)] = key;
+    }
+
+    private void rehash(int capacity) {
+        long[] newKeys = new long[capacity];
+        long[] newEntries = new long[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                int slot = home(keys[i]) & mask;
+                while (newKeys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                newKeys[slot] = keys[i];
+                newEntries[slot] = entries[i];
+            }
+        }
+        keys = newKeys;
+        entries = newEntries;
+    }
+
+    private int append(byte[] record) {
+        if (arena.length - arenaEnd < record.length) {
+            compact(record.length);
+        }
+        int offset = arenaEnd;
+        System.arraycopy(record, 0, arena, offset, record.length);
+        arenaEnd += record.length;
+        liveBytes += record.length;
+        return offset;
+    }
+
+    /**
+     * Переносит URL живых записей в новый массив, освобождая место вытесненных;
+     * массив растет в полтора раза, пока живые данные занимают больше 4/5.
+     */
+    private void compact(int needed) {
+        long required = liveBytes + needed;
+        long capacity = arena.length;
+        while (capacity < required + (required >>> 2) && capacity < MAX_ARENA_SIZE) {
+            capacity = Math.min(MAX_ARENA_SIZE, capacity + (capacity >>> 1));
+        }
+        if (capacity < required) {
+            throw new IllegalStateException("Кэш коротких ссылок превысил " + MAX_ARENA_SIZE + " байт URL");
+        }
+        byte[] compacted = new byte[(int) capacity];
+        int end = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            long offset = entries[slot] >>> 32;
+            if (keys[slot] != 0 && offset != 0) {
+                int length = recordSize(arena, (int) offset - 1);
+                System.arraycopy(arena, (int) offset - 1, compacted, end, length);
+                entries[slot] = (end + 1L) << 32 | (entries[slot] & MAX_SECONDS);
+                end += length;
+            }
+        }
+        arena = compacted;
+        arenaEnd = end;
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.klijjen.urlshortener.cache;
+
+import com.github.klijjen.urlshortener.config.ShortCodeFilterConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Фильтр Блума по всем выданным коротким кодам. Отрицательный ответ точен, поэтому
+ * запрос к базе для такого кода не нужен; положительный означает только "возможно есть".
+ * Пока фильтр не заполнен из базы ({@link #markLoaded()}), он отвечает "возможно есть" на любой код.
+ * Удаление не поддерживается: удаленные коды дают лишние положительные ответы, но не ошибки.
+ * Фильтр локален для процесса и заполняется один раз при старте: коды, сохраненные другими экземплярами
+ * приложения, он не видит. Поэтому он выключен по умолчанию и годится только для единственного экземпляра
+ * с одной базой; вместе с репликами чтения приложение не запустится.
+ */
+@Component
+public class ShortCodeFilter implements MeterBinder {
+    private final boolean enabled;
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    private final LongAdder setBits = new LongAdder();
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder positives = new LongAdder();
+    private volatile boolean loaded;
+
+    @Value("${app.datasource.read-replicas.enabled:false}")
+    private boolean readReplicas;
+
+    @Autowired
+    public ShortCodeFilter(ShortCodeFilterConfig config) {
+        long expected = Math.max(1, config.getExpectedInsertions());
+        double rate = config.getFalsePositiveRate();
+        if (!(rate > 0 && rate < 1)) {
+            throw new IllegalArgumentException("Вероятность ложного срабатывания должна быть в диапазоне (0, 1): " + rate);
+        }
+
+        // Оптимальные m = -n ln p / (ln 2)^2 и k = m/n ln 2
+        long bits = (long) Math.ceil(-expected * Math.log(rate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+
+        this.enabled = config.isEnabled();
+        this.words = new AtomicLongArray(enabled ? wordCount : 1);
+        this.bitCount = words.length() * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / expected * Math.log(2)));
+    }
+
+    @PostConstruct
+    void validate() {
+        if (enabled && readReplicas) {
+            throw new IllegalArgumentException(
+                    "app.short-code-filter.enabled несовместим с app.datasource.read-replicas.enabled: "
+                            + "фильтр локален для процесса и не видит коды, сохраненные другими экземплярами");
+        }
+    }
+
+    void setReadReplicas(boolean readReplicas) {
+        this.readReplicas = readReplicas;
+    }
+
+    public void add(String shortCode) {
+        if (!enabled) {
+            return;
+        }
+        long hash1 = hash(shortCode);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            setBit(Math.floorMod(hash1 + i * hash2, bitCount));
+        }
+    }
+
+    public boolean mightContain(String shortCode) {
+        if (!enabled || !loaded) {
+            return true;
+        }
+        long hash1 = hash(shortCode);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                negatives.increment();
+                return false;
+            }
+        }
+        positives.increment();
+        return true;
+    }
+
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public double fillRatio() {
+        return (double) setBits.sum() / bitCount;
+    }
+
+    /**
+     * Ожидаемая доля ложных срабатываний при текущем заполнении: (доля установленных бит)^k.
+     */
+    public double falsePositiveRate() {
+        return Math.pow(fillRatio(), hashFunctions);
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+        setBits.increment();
+    }
+
+    private static long hash(String value) {
+        // FNV-1a по символам с финальным перемешиванием
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bloom.fill.ratio", this, ShortCodeFilter::fillRatio)
+                .tag("filter", "short-codes")
+                .register(registry);
+        Gauge.builder("bloom.false.positive.rate", this, ShortCodeFilter::falsePositiveRate)
+                .tag("filter", "short-codes")
+                .register(registry);
+        FunctionCounter.builder("bloom.checks", negatives, LongAdder::sum)
+                .tag("filter", "short-codes").tag("result", "negative")
+                .register(registry);
+        FunctionCounter.builder("bloom.checks", positives, LongAdder::sum)
+                .tag("filter", "short-codes").tag("result", "positive")
+                .register(registry);
+    }
+}
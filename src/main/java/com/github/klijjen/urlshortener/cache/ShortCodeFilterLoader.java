@@ -0,0 +1,67 @@
+package com.github.klijjen.urlshortener.cache;
+
+import com.github.klijjen.urlshortener.config.ShortCodeFilterConfig;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Заполняет {@link ShortCodeFilter} кодами из таблицы urls при старте.
+ * Коды читаются постранично по возрастанию shortCode; до окончания загрузки фильтр
+ * ничего не отсекает, а коды, сохраненные во время загрузки, добавляются в него сразу.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "jpa", matchIfMissing = true)
+public class ShortCodeFilterLoader implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ShortCodeFilterLoader.class);
+    private final ShortCodeFilter filter;
+    private final UrlRepository urlRepository;
+    private final ShortCodeFilterConfig config;
+
+    @Autowired
+    public ShortCodeFilterLoader(ShortCodeFilter filter, UrlRepository urlRepository, ShortCodeFilterConfig config) {
+        this.filter = filter;
+        this.urlRepository = urlRepository;
+        this.config = config;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (config.isEnabled()) {
+            load();
+        }
+    }
+
+    public long load() {
+        String after = "";
+        long loaded = 0;
+
+        while (true) {
+            List<String> page = urlRepository.findShortCodesAfter(after, PageRequest.ofSize(config.getLoadBatchSize()));
+            page.forEach(filter::add);
+            loaded += page.size();
+
+            if (page.size() < config.getLoadBatchSize()) {
+                break;
+            }
+            after = page.get(page.size() - 1);
+        }
+
+        filter.markLoaded();
+        logger.info("Фильтр коротких кодов заполнен: {} кодов, доля установленных бит {}", loaded,
+                String.format("%.4f", filter.fillRatio()));
+        if (loaded > config.getExpectedInsertions()) {
+            logger.warn("Кодов больше, чем app.short-code-filter.expected-insertions ({}): ожидаемая доля ложных срабатываний {}",
+                    config.getExpectedInsertions(), String.format("%.4f", filter.falsePositiveRate()));
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,249 @@
+package com.github.klijjen.urlshortener.cache;
+
+import com.github.klijjen.urlshortener.config.UrlCacheConfig;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Ограниченный по размеру и времени жизни кэш shortCode -> {@link CachedUrl}: URL, срок действия и код редиректа.
+ * Соответствие меняется, только когда код удаленной истекшей ссылки выдается заново, и тогда сохранение
+ * заменяет запись; иначе инвалидация не нужна: записи вытесняются по TTL или в порядке добавления при переполнении.
+ * Отсутствующие коды кэшируются отдельно с коротким TTL. Запись о ссылке со сроком действия
+ * живет не дольше самой ссылки, поэтому истекшая ссылка из кэша не возвращается.
+ * <p>
+ * Коды, которые помещаются в long, хранятся в {@link PackedUrlIndex} без объектов на запись
+ * (app.cache.packed-keys); длинные коды и псевдонимы - в ConcurrentHashMap и при переполнении вытесняются первыми.
+ */
+@Component
+public class UrlCache implements MeterBinder {
+    private static final int INITIAL_ARENA_SIZE = 64 * 1024;
+
+    /**
+     * Обход записей с URL.
+     */
+    public interface EntryVisitor {
+        void visit(String shortCode, CachedUrl value, long remainingNanos);
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final PackedUrlIndex packed;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    @Autowired
+    public UrlCache(UrlCacheConfig config) {
+        this.enabled = config.isEnabled() && config.getMaxSize() > 0;
+        this.maxSize = config.getMaxSize();
+        this.ttlNanos = config.getTtl().toNanos();
+        this.negativeTtlNanos = config.getNegativeTtl().toNanos();
+        this.packed = config.isPackedKeys() ? new PackedUrlIndex(INITIAL_ARENA_SIZE) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<CachedUrl> get(String shortCode, Function<String, Optional<CachedUrl>> loader) {
+        if (!enabled) {
+            return loader.apply(shortCode);
+        }
+
+        CachedUrl cached = lookup(shortCode);
+        if (cached != null) {
+            hits.increment();
+            return cached == PackedUrlIndex.MISSING ? Optional.empty() : Optional.of(cached);
+        }
+
+        misses.increment();
+        Optional<CachedUrl> loaded = loader.apply(shortCode);
+        store(shortCode, loaded.orElse(null), null);
+        return loaded;
+    }
+
+    /**
+     * Значение без вызова загрузчика - для тех, кто загружает его асинхронно и затем вызывает {@link #put}.
+     * null - записи нет; CachedUrl с originalUrl == null - код закэширован как отсутствующий.
+     */
+    public CachedUrl getIfPresent(String shortCode) {
+        if (!enabled) {
+            return null;
+        }
+
+        CachedUrl cached = lookup(shortCode);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Живая запись, {@link PackedUrlIndex#MISSING} для отрицательной записи или null.
+     */
+    private CachedUrl lookup(String shortCode) {
+        long key = packed != null ? PackedUrlIndex.pack(shortCode) : PackedUrlIndex.NOT_PACKABLE;
+        if (key != PackedUrlIndex.NOT_PACKABLE) {
+            return packed.get(key, System.nanoTime());
+        }
+        Entry entry = entries.get(shortCode);
+        if (entry == null || entry.expiresAt - System.nanoTime() <= 0) {
+            return null;
+        }
+        return entry.value != null ? entry.value : PackedUrlIndex.MISSING;
+    }
+
+    public void put(String shortCode, String originalUrl) {
+        put(shortCode, originalUrl, null);
+    }
+
+    public void put(String shortCode, String originalUrl, Instant expiresAt) {
+        put(shortCode, originalUrl != null ? new CachedUrl(originalUrl, expiresAt) : null);
+    }
+
+    /**
+     * Сохраняет ссылку; value == null - код отсутствует.
+     */
+    public void put(String shortCode, CachedUrl value) {
+        if (enabled) {
+            store(shortCode, value, null);
+        }
+    }
+
+    /**
+     * Запись из снимка кэша: живет не дольше, чем прожила бы в кэше, из которого снят снимок.
+     */
+    void restore(String shortCode, CachedUrl value, Instant cachedUntil) {
+        if (enabled) {
+            store(shortCode, value, cachedUntil);
+        }
+    }
+
+    private void store(String shortCode, CachedUrl value, Instant cachedUntil) {
+        long ttl = value != null ? ttlNanos : negativeTtlNanos;
+        if (value != null && value.expiresAt() != null) {
+            ttl = Math.min(ttl, remainingNanos(value.expiresAt()));
+        }
+        if (cachedUntil != null) {
+            ttl = Math.min(ttl, remainingNanos(cachedUntil));
+        }
+        if (ttl <= 0) {
+            return;
+        }
+
+        // Просроченные записи не удаляются при чтении, а перезаписываются:
+        // так каждый ключ попадает в очередь вытеснения ровно один раз.
+        long key = packed != null ? PackedUrlIndex.pack(shortCode) : PackedUrlIndex.NOT_PACKABLE;
+        if (key != PackedUrlIndex.NOT_PACKABLE) {
+            if (packed.put(key, value, System.nanoTime(), ttl)) {
+                evictIfNeeded();
+            }
+            return;
+        }
+        Entry previous = entries.put(shortCode, new Entry(value, System.nanoTime() + ttl));
+        if (previous == null) {
+            insertionOrder.offer(shortCode);
+            evictIfNeeded();
+        }
+    }
+
+    private static long remainingNanos(Instant expiresAt) {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        if (remaining.isNegative()) {
+            return 0;
+        }
+        // Дальше чем на ~292 года вперед toNanos переполняется; такой срок не ограничивает TTL
+        return remaining.getSeconds() >= Long.MAX_VALUE / 1_000_000_000L ? Long.MAX_VALUE : remaining.toNanos();
+    }
+
+    private void evictIfNeeded() {
+        while (size() > maxSize) {
+            String eldest = insertionOrder.poll();
+            if (eldest != null) {
+                if (entries.remove(eldest) != null) {
+                    evictions.increment();
+                }
+            } else if (packed != null && packed.evictEldest()) {
+                evictions.increment();
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Обходит живые записи с URL (отрицательные пропускаются); remainingNanos - сколько запись еще прожила бы
+     * в кэше. Используется для снимка кэша перед перезапуском.
+     */
+    public void forEachEntry(EntryVisitor visitor) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        entries.forEach((shortCode, entry) -> {
+            if (entry.value != null && entry.expiresAt - now > 0) {
+                visitor.visit(shortCode, entry.value, entry.expiresAt - now);
+            }
+        });
+        if (packed != null) {
+            packed.forEach(now, (key, value, remainingNanos) ->
+                    visitor.visit(PackedUrlIndex.unpack(key), value, remainingNanos));
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size() + (packed != null ? packed.size() : 0);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", this, UrlCache::hitCount)
+                .tag("cache", "urls").tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, UrlCache::missCount)
+                .tag("cache", "urls").tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, UrlCache::evictionCount)
+                .tag("cache", "urls")
+                .register(registry);
+        Gauge.builder("cache.size", this, UrlCache::size)
+                .tag("cache", "urls")
+                .register(registry);
+    }
+
+    private record Entry(CachedUrl value, long expiresAt) {
+    }
+}
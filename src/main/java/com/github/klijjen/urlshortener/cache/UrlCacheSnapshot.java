@@ -0,0 +1,150 @@
+package com.github.klijjen.urlshortener.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Двоичный снимок {@link UrlCache} для быстрого перезапуска.
+ * <p>
+ * Формат: MAGIC (long), источник данных (int длина + UTF-8), записи, число записей (int) и CRC32 всего
+ * предыдущего (int). Запись: момент истечения записи кэша и срок действия ссылки в миллисекундах эпохи (long, 0 -
+ * бессрочная), код редиректа (short, 0 - по умолчанию), учет переходов (byte, 0 - по коду редиректа, 1 - выключен,
+ * 2 - включен), длина кода (short), длина URL (int), код и URL в UTF-8. Файл пишется во временный и атомарно
+ * переименовывается, читается через отображение в память.
+ */
+final class UrlCacheSnapshot {
+    private static final long MAGIC = 0x55524C534E415033L;
+    private static final int TRAILER_SIZE = 8;
+
+    private UrlCacheSnapshot() {
+    }
+
+    /**
+     * Сохраняет живые записи кэша с моментом их истечения; source - строка подключения к базе, из которой они получены.
+     *
+     * @return число сохраненных записей
+     */
+    static int write(Path file, String source, UrlCache cache, Instant now) throws IOException {
+        // Снимок собирается в памяти: блокировка чтения кэша не держится на время записи на диск
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        CRC32 crc = new CRC32();
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(bytes, crc));
+        out.writeLong(MAGIC);
+        writeBytes(out, source.getBytes(StandardCharsets.UTF_8));
+
+        long nowMillis = now.toEpochMilli();
+        int[] count = {0};
+        try {
+            cache.forEachEntry((shortCode, value, remainingNanos) -> {
+                try {
+                    out.writeLong(nowMillis + remainingNanos / 1_000_000);
+                    out.writeLong(value.expiresAt() != null ? value.expiresAt().toEpochMilli() : 0);
+                    out.writeShort(value.redirectStatus() != null ? value.redirectStatus() : 0);
+                    out.writeByte(value.analytics() != null ? value.analytics() ? 2 : 1 : 0);
+                    byte[] code = shortCode.getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(code.length);
+                    byte[] url = value.originalUrl().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(url.length);
+                    out.write(code);
+                    out.write(url);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.writeInt(count[0]);
+        out.writeInt((int) crc.getValue());
+        out.flush();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, bytes.toByteArray());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count[0];
+    }
+
+    /**
+     * Загружает в кэш записи снимка, не истекшие к моменту now.
+     *
+     * @return число загруженных записей
+     * @throws IOException если снимок поврежден или снят с другой базы
+     */
+    static int read(Path file, String source, UrlCache cache, Instant now) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Long.BYTES + Integer.BYTES + TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Недопустимый размер снимка кэша: " + size + " байт");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int end = (int) size - TRAILER_SIZE;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, end + Integer.BYTES));
+            if ((int) crc.getValue() != buffer.getInt(end + Integer.BYTES)) {
+                throw new IOException("Контрольная сумма снимка кэша не совпадает");
+            }
+            if (buffer.getLong() != MAGIC) {
+                throw new IOException("Файл не является снимком кэша");
+            }
+            String snapshotSource = new String(readBytes(buffer, buffer.getInt()), StandardCharsets.UTF_8);
+            if (!snapshotSource.equals(source)) {
+                throw new IOException("Снимок кэша снят с другой базы: " + snapshotSource);
+            }
+
+            long nowMillis = now.toEpochMilli();
+            int count = buffer.getInt(end);
+            int loaded = 0;
+            for (int i = 0; i < count; i++) {
+                long cachedUntil = buffer.getLong();
+                long expiresAt = buffer.getLong();
+                int redirectStatus = buffer.getShort();
+                byte analytics = buffer.get();
+                int codeLength = Short.toUnsignedInt(buffer.getShort());
+                int urlLength = buffer.getInt();
+                byte[] code = readBytes(buffer, codeLength);
+                byte[] url = readBytes(buffer, urlLength);
+                if (cachedUntil > nowMillis) {
+                    CachedUrl value = new CachedUrl(new String(url, StandardCharsets.UTF_8),
+                            expiresAt != 0 ? Instant.ofEpochMilli(expiresAt) : null,
+                            redirectStatus != 0 ? redirectStatus : null, analytics != 0 ? analytics == 2 : null);
+                    cache.restore(new String(code, StandardCharsets.UTF_8), value, Instant.ofEpochMilli(cachedUntil));
+                    loaded++;
+                }
+            }
+            if (buffer.position() != end) {
+                throw new IOException("Число записей снимка кэша не совпадает с его размером");
+            }
+            return loaded;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Снимок кэша поврежден", e);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(MappedByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
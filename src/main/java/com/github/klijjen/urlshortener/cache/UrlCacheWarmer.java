@@ -0,0 +1,137 @@
+package com.github.klijjen.urlshortener.cache;
+
+import com.github.klijjen.urlshortener.repository.UrlRecord;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Прогревает {@link UrlCache} при старте, чтобы после перезапуска редиректы не уходили в базу все разом.
+ * Основной источник - снимок кэша {@link UrlCacheSnapshot}, который сохраняется периодически и при остановке.
+ * Если снимка нет, он поврежден, снят с другой базы или все его записи истекли, в кэш загружаются
+ * самые посещаемые ссылки из базы. Прогрев выполняется в ApplicationRunner, поэтому приложение
+ * сообщает о готовности (readiness) только после него.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "jpa", matchIfMissing = true)
+public class UrlCacheWarmer implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(UrlCacheWarmer.class);
+    private final UrlCache urlCache;
+    private final UrlRepository urlRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${app.cache.snapshot.enabled:false}")
+    private boolean snapshotEnabled;
+
+    @Value("${app.cache.snapshot.path:./data/url-cache.snapshot}")
+    private Path snapshotPath = Path.of("./data/url-cache.snapshot");
+
+    @Value("${app.cache.warmup.top-clicks:10000}")
+    private int topClicks = 10_000;
+
+    // Снимок, снятый с другой базы, не загружается
+    @Value("${spring.datasource.url:}")
+    private String source = "";
+
+    @Autowired
+    public UrlCacheWarmer(UrlCache urlCache, UrlRepository urlRepository, TransactionTemplate transactionTemplate) {
+        this.urlCache = urlCache;
+        this.urlRepository = urlRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (urlCache.isEnabled()) {
+            warmUp();
+        }
+    }
+
+    public int warmUp() {
+        long started = System.nanoTime();
+        int loaded = snapshotEnabled ? loadSnapshot() : 0;
+        String from = "снимка";
+        if (loaded == 0 && topClicks > 0) {
+            loaded = loadMostClicked();
+            from = "базы по числу переходов";
+        }
+        logger.info("Кэш коротких ссылок прогрет из {}: {} записей за {} мс", from, loaded,
+                (System.nanoTime() - started) / 1_000_000);
+        return loaded;
+    }
+
+    public int loadSnapshot() {
+        try {
+            return UrlCacheSnapshot.read(snapshotPath, source, urlCache, Instant.now());
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            logger.warn("Снимок кэша {} не загружен: {}", snapshotPath, e.getMessage());
+            return 0;
+        }
+    }
+
+    public int loadMostClicked() {
+        Integer loaded = readOnlyTransaction.execute(status -> {
+            int count = 0;
+            try (Stream<UrlRecord> records = urlRepository.streamMostClicked(Instant.now(), Limit.of(topClicks))) {
+                Iterator<UrlRecord> iterator = records.iterator();
+                while (iterator.hasNext()) {
+                    UrlRecord record = iterator.next();
+                    urlCache.put(record.shortCode(), new CachedUrl(record.originalUrl(), record.expiresAt(),
+                            record.redirectStatus(), record.analytics()));
+                    count++;
+                }
+            }
+            return count;
+        });
+        return loaded != null ? loaded : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.snapshot.interval-ms:300000}",
+            initialDelayString = "${app.cache.snapshot.interval-ms:300000}")
+    public void saveScheduled() {
+        if (snapshotEnabled && urlCache.isEnabled()) {
+            save();
+        }
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        saveScheduled();
+    }
+
+    public int save() {
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            int saved = UrlCacheSnapshot.write(snapshotPath, source, urlCache, Instant.now());
+            logger.debug("Снимок кэша сохранен: {} записей", saved);
+            return saved;
+        } catch (IOException e) {
+            logger.warn("Не удалось сохранить снимок кэша {}: {}", snapshotPath, e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.klijjen.urlshortener.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.storage.embedded")
+public class EmbeddedStorageConfig {
+
+    private Path path = Path.of("./data/edge");
+    private int expectedLinks = 1_000_000;
+    private DataSize regionSize = DataSize.ofMegabytes(256);
+
+    public Path getPath() {
+        return path;
+    }
+
+    public void setPath(Path path) {
+        this.path = path;
+    }
+
+    public int getExpectedLinks() {
+        return expectedLinks;
+    }
+
+    public void setExpectedLinks(int expectedLinks) {
+        this.expectedLinks = expectedLinks;
+    }
+
+    public DataSize getRegionSize() {
+        return regionSize;
+    }
+
+    public void setRegionSize(DataSize regionSize) {
+        this.regionSize = regionSize;
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.klijjen.urlshortener.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Бины реактивного варианта (профиль reactive), которые Spring Boot не создает сам,
+ * когда в одном приложении есть и сервлетный, и реактивный стек.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    /**
+     * Tomcat в classpath нужен сервлетному варианту, и без явной фабрики реактивное приложение
+     * запустилось бы на нем через адаптер. Netty обслуживает запросы в цикле событий.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * При наличии R2DBC ConnectionFactory автоконфигурация DataSource отключается, а JPA по-прежнему нужна:
+     * Hibernate создает схему, через нее работают генераторы кодов, статистика и фоновые задачи.
+     * С репликами DataSource создает {@link ReadReplicaDataSourceConfig}.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.read-replicas", name = "enabled", havingValue = "false", matchIfMissing = true)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
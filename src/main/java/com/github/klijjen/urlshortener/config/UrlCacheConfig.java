@@ -0,0 +1,57 @@
+package com.github.klijjen.urlshortener.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class UrlCacheConfig {
+
+    private boolean enabled = true;
+    private int maxSize = 100_000;
+    private Duration ttl = Duration.ofMinutes(30);
+    private Duration negativeTtl = Duration.ofSeconds(30);
+    private boolean packedKeys = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    public void setNegativeTtl(Duration negativeTtl) {
+        this.negativeTtl = negativeTtl;
+    }
+
+    public boolean isPackedKeys() {
+        return packedKeys;
+    }
+
+    public void setPackedKeys(boolean packedKeys) {
+        this.packedKeys = packedKeys;
+    }
+}
@@ -3,6 +3,8 @@ package com.github.klijjen.urlshortener.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Configuration
 @ConfigurationProperties(prefix = "app.short-url")
 public class UrlShortenerConfig {
@@ -11,6 +13,12 @@ public class UrlShortenerConfig {
     private int defaultLength = 6;
     private int maxLength = 12;
     private int maxAttempts = 10;
+    private int blockSize = 1000;
+    private String alphabet = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private int aliasMinLength = 3;
+    private int aliasMaxLength = 32;
+    private List<String> reservedAliases = List.of("actuator", "admin", "api", "error", "h2-console", "health",
+            "login", "logout", "shorten", "static", "stats");
 
     public int getMinLength() {
         return minLength;
@@ -43,4 +51,44 @@ public class UrlShortenerConfig {
     public void setMaxAttempts(int maxAttempts) {
         this.maxAttempts = maxAttempts;
     }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public void setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+    }
+
+    public String getAlphabet() {
+        return alphabet;
+    }
+
+    public void setAlphabet(String alphabet) {
+        this.alphabet = alphabet;
+    }
+
+    public int getAliasMinLength() {
+        return aliasMinLength;
+    }
+
+    public void setAliasMinLength(int aliasMinLength) {
+        this.aliasMinLength = aliasMinLength;
+    }
+
+    public int getAliasMaxLength() {
+        return aliasMaxLength;
+    }
+
+    public void setAliasMaxLength(int aliasMaxLength) {
+        this.aliasMaxLength = aliasMaxLength;
+    }
+
+    public List<String> getReservedAliases() {
+        return reservedAliases;
+    }
+
+    public void setReservedAliases(List<String> reservedAliases) {
+        this.reservedAliases = reservedAliases;
+    }
 }
\ No newline at end of file
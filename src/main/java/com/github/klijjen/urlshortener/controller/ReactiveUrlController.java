@@ -0,0 +1,157 @@
+package com.github.klijjen.urlshortener.controller;
+
+import com.github.klijjen.urlshortener.controller.dto.ShortenRequest;
+import com.github.klijjen.urlshortener.service.AliasConflictException;
+import com.github.klijjen.urlshortener.service.ClickStatsService;
+import com.github.klijjen.urlshortener.service.ReactiveUrlService;
+import com.github.klijjen.urlshortener.service.ShortenCommand;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeSpaceExhaustedException;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Вариант {@link UrlController} на WebFlux для профиля reactive: те же маршруты и формат ответов.
+ * Пакетное сокращение и выгрузка/загрузка в этом варианте не поддерживаются.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUrlController {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUrlController.class);
+    private final ReactiveUrlService urlService;
+    private final ClickStatsService clickStatsService;
+    private final RedirectPolicy redirectPolicy;
+
+    @Autowired
+    public ReactiveUrlController(ReactiveUrlService urlService, ClickStatsService clickStatsService,
+                                 RedirectPolicy redirectPolicy) {
+        this.urlService = urlService;
+        this.clickStatsService = clickStatsService;
+        this.redirectPolicy = redirectPolicy;
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleValidationExceptions(WebExchangeBindException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getFieldErrors().forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
+
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Ошибка валидации");
+        response.put("message", errors.toString());
+
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException ex) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Ошибка валидации");
+        response.put("message", ex.getMessage());
+
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(DataIntegrityViolationException ex) {
+        logger.warn("Конфликт при сохранении короткой ссылки: {}", ex.getMostSpecificCause().getMessage());
+
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Конфликт");
+        response.put("message", "Короткий код уже занят, повторите запрос");
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(AliasConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleAliasConflict(AliasConflictException ex) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("error", "Конфликт");
+        response.put("message", ex.getMessage());
+        response.put("suggestions", ex.getSuggestions());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(ShortCodeSpaceExhaustedException.class)
+    public ResponseEntity<Map<String, String>> handleCodeSpaceExhausted(ShortCodeSpaceExhaustedException ex) {
+        logger.error("Не удалось выдать короткий код: {}", ex.getMessage());
+
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Сервис недоступен");
+        response.put("message", "Не удалось выдать короткий код, повторите запрос позже");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    @PostMapping("/shorten")
+    public Mono<ResponseEntity<Map<String, String>>> shortenUrl(@Valid @RequestBody ShortenRequest request) {
+        logger.debug("Получен запрос на сокращение URL: {}", request.getUrl());
+
+        ShortenCommand command = new ShortenCommand(request.getUrl(), request.getLength(), request.getAlias(),
+                request.getExpiresAt(), request.getRedirectStatus(), request.getAnalytics());
+        return urlService.shorten(command).map(shortUrl -> {
+            Map<String, String> response = new HashMap<>();
+            response.put("shortUrl", shortUrl);
+            response.put("originalUrl", request.getUrl());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        });
+    }
+
+    @GetMapping("/{shortCode}")
+    public Mono<ResponseEntity<Void>> redirectToOriginalUrl(@PathVariable String shortCode, HttpMethod method,
+                                                            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        logger.debug("Запрос редиректа для короткого кода: {}", shortCode);
+
+        return urlService.getRedirect(shortCode)
+                .map(link -> {
+                    logger.debug("Редирект с {} на {}", shortCode, link.originalUrl());
+                    if (method != HttpMethod.HEAD && redirectPolicy.tracksClicks(link)) {
+                        clickStatsService.recordClick(shortCode);
+                    }
+                    HttpHeaders headers = new HttpHeaders();
+                    int status = redirectPolicy.writeRedirect(link, ifNoneMatch, Instant.now(), headers::set);
+                    return ResponseEntity.status(status).headers(headers).<Void>build();
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{shortCode}/stats")
+    public Mono<ResponseEntity<Map<String, Object>>> getStats(@PathVariable String shortCode) {
+        // Сохраненные значения читаются через JPA, поэтому не в потоке обработки запросов
+        return urlService.getOriginalUrl(shortCode)
+                .flatMap(originalUrl -> Mono.fromCallable(() -> clickStatsService.getClicks(shortCode))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .map(clicks -> {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("shortCode", shortCode);
+                    response.put("clicks", clicks);
+                    return ResponseEntity.ok(response);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/health")
+    public ResponseEntity<Map<String, String>> healthCheck() {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "OK");
+        response.put("service", "URL Shortener");
+        response.put("version", "1.0.0");
+        return ResponseEntity.ok(response);
+    }
+}
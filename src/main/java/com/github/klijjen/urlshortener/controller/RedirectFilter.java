@@ -0,0 +1,112 @@
+package com.github.klijjen.urlshortener.controller;
+
+import com.github.klijjen.urlshortener.cache.CachedUrl;
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import com.github.klijjen.urlshortener.service.ClickStatsService;
+import com.github.klijjen.urlshortener.service.UrlService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Обрабатывает GET/HEAD /{shortCode} до DispatcherServlet: без привязки аргументов,
+ * ResponseEntity и открытия EntityManager на запрос. Пути, которые не похожи на короткий код,
+ * и зарезервированные маршруты передаются дальше по цепочке, в том числе в UrlController.
+ * Код ответа и заголовки кэширования определяет {@link RedirectPolicy}; HEAD получает те же заголовки,
+ * но не считается переходом.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RedirectFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RedirectFilter.class);
+
+    private final UrlService urlService;
+    private final ClickStatsService clickStatsService;
+    private final RedirectPolicy redirectPolicy;
+    // Служебные маршруты - те же слова, что запрещены как псевдонимы (app.short-url.reserved-aliases)
+    private final Set<String> reservedPaths;
+    // Границы охватывают и сгенерированные коды, и псевдонимы
+    private final int minLength;
+    private final int maxLength;
+
+    @Value("${app.redirect.fast-path.enabled:true}")
+    private boolean enabled = true;
+
+    @Autowired
+    public RedirectFilter(UrlService urlService, ClickStatsService clickStatsService, RedirectPolicy redirectPolicy,
+                          UrlShortenerConfig config) {
+        this.urlService = urlService;
+        this.clickStatsService = clickStatsService;
+        this.redirectPolicy = redirectPolicy;
+        this.reservedPaths = config.getReservedAliases().stream()
+                .map(word -> word.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.minLength = Math.min(config.getMinLength(), config.getAliasMinLength());
+        this.maxLength = Math.max(config.getMaxLength(), config.getAliasMaxLength());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String method = request.getMethod();
+        return !("GET".equals(method) || "HEAD".equals(method));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String shortCode = extractShortCode(request);
+        if (shortCode == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<CachedUrl> link = urlService.getRedirect(shortCode);
+        if (link.isPresent()) {
+            logger.debug("Редирект с {} на {}", shortCode, link.get().originalUrl());
+            if (!"HEAD".equals(request.getMethod()) && redirectPolicy.tracksClicks(link.get())) {
+                clickStatsService.recordClick(shortCode);
+            }
+            response.setStatus(redirectPolicy.writeRedirect(link.get(), request.getHeader("If-None-Match"),
+                    Instant.now(), response::setHeader));
+        } else {
+            logger.debug("URL не найден для короткого кода: {}", shortCode);
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    private String extractShortCode(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        int start = request.getContextPath().length() + 1;
+        int length = uri.length() - start;
+        if (length < minLength || length > maxLength || uri.charAt(start - 1) != '/') {
+            return null;
+        }
+        for (int i = start; i < uri.length(); i++) {
+            char c = uri.charAt(i);
+            boolean allowed = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '_';
+            if (!allowed) {
+                return null;
+            }
+        }
+        String shortCode = uri.substring(start);
+        return reservedPaths.contains(shortCode.toLowerCase(Locale.ROOT)) ? null : shortCode;
+    }
+}
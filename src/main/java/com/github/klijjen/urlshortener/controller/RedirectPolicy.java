@@ -0,0 +1,123 @@
+package com.github.klijjen.urlshortener.controller;
+
+import com.github.klijjen.urlshortener.cache.CachedUrl;
+import com.github.klijjen.urlshortener.service.ClickStatsService;
+import com.github.klijjen.urlshortener.service.ShortenValidator;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.function.BiConsumer;
+
+/**
+ * Код ответа и заголовки кэширования редиректа, общие для фильтра и контроллеров обоих вариантов.
+ * <p>
+ * 302 не кэшируется (Cache-Control: no-store): каждый переход доходит до сервера и учитывается в статистике,
+ * поэтому это код по умолчанию. 301, 307 и 308 кэшируются браузером и CDN на app.redirect.max-age секунд,
+ * но не дольше срока действия ссылки, и получают ETag: повторная проверка с If-None-Match получает 304 без Location.
+ * Переходы, обслуженные из кэша клиента или CDN, до сервера не доходят, поэтому ссылка с учетом переходов
+ * (признак analytics, без него - ссылка с кодом 302) при включенной статистике (app.analytics.enabled) всегда
+ * отдается как 302, а остальные ссылки - своим кодом с заголовками кэширования.
+ */
+@Component
+public class RedirectPolicy {
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+    static final int NOT_MODIFIED = 304;
+
+    @Value("${app.redirect.default-status:302}")
+    private int defaultStatus = 302;
+
+    @Value("${app.redirect.max-age:86400}")
+    private long maxAge = 86_400;
+
+    @Value("${app.analytics.enabled:true}")
+    private boolean analyticsEnabled = true;
+
+    public RedirectPolicy() {
+    }
+
+    RedirectPolicy(int defaultStatus, long maxAge, boolean analyticsEnabled) {
+        this.defaultStatus = defaultStatus;
+        this.maxAge = maxAge;
+        this.analyticsEnabled = analyticsEnabled;
+    }
+
+    @PostConstruct
+    void validate() {
+        if (!ShortenValidator.isRedirectStatus(defaultStatus)) {
+            throw new IllegalArgumentException("app.redirect.default-status должен быть одним из: 301, 302, 307, 308");
+        }
+    }
+
+    /**
+     * Учитываются ли переходы по ссылке: явный признак ссылки, без него - отдается ли она некэшируемым 302.
+     * Выключенную статистику (app.analytics.enabled=false) проверяет сам {@link ClickStatsService}.
+     */
+    public boolean tracksClicks(CachedUrl link) {
+        return link.analytics() != null ? link.analytics() : status(link) == 302;
+    }
+
+    /**
+     * Передает заголовки ответа в headers и возвращает его код: код редиректа ссылки или 304,
+     * если клиент прислал в If-None-Match ее текущий ETag.
+     */
+    public int writeRedirect(CachedUrl link, String ifNoneMatch, Instant now, BiConsumer<String, String> headers) {
+        // Ссылка с учетом переходов не кэшируется, даже если код по умолчанию с тех пор сменился на кэшируемый
+        int status = analyticsEnabled && tracksClicks(link) ? 302 : status(link);
+        long seconds = status != 302 ? maxAge(link.expiresAt(), now) : 0;
+        if (seconds <= 0) {
+            headers.accept("Cache-Control", "no-store");
+            headers.accept("Location", link.originalUrl());
+            return status;
+        }
+
+        String etag = etag(status, link.originalUrl());
+        headers.accept("Cache-Control", "public, max-age=" + seconds);
+        headers.accept("Expires", HTTP_DATE.format(now.plusSeconds(seconds)));
+        headers.accept("ETag", etag);
+        if (matches(ifNoneMatch, etag)) {
+            return NOT_MODIFIED;
+        }
+        headers.accept("Location", link.originalUrl());
+        return status;
+    }
+
+    private int status(CachedUrl link) {
+        return link.redirectStatus() != null ? link.redirectStatus() : defaultStatus;
+    }
+
+    private long maxAge(Instant expiresAt, Instant now) {
+        if (expiresAt == null) {
+            return maxAge;
+        }
+        return Math.min(maxAge, Duration.between(now, expiresAt).getSeconds());
+    }
+
+    // Соответствия неизменяемы, поэтому ETag зависит только от кода ответа и URL
+    private static String etag(int status, String originalUrl) {
+        return "\"" + status + "-" + Integer.toHexString(originalUrl.hashCode()) + "\"";
+    }
+
+    /**
+     * Слабое сравнение If-None-Match (RFC 9110, 13.1.2): список тегов через запятую или "*".
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
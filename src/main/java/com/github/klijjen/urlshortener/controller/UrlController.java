@@ -1,29 +1,58 @@
 package com.github.klijjen.urlshortener.controller;
 
+import com.github.klijjen.urlshortener.cache.CachedUrl;
 import com.github.klijjen.urlshortener.controller.dto.ShortenRequest;
+import com.github.klijjen.urlshortener.service.AliasConflictException;
+import com.github.klijjen.urlshortener.service.ClickStatsService;
+import com.github.klijjen.urlshortener.service.ShortenCommand;
+import com.github.klijjen.urlshortener.service.ShortenResult;
 import com.github.klijjen.urlshortener.service.UrlService;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeSpaceExhaustedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UrlController {
     private static final Logger logger = LoggerFactory.getLogger(UrlController.class);
     private final UrlService urlService;
+    private final ClickStatsService clickStatsService;
+    private final RedirectPolicy redirectPolicy;
+    private final Validator validator;
+
+    @Value("${app.short-url.max-batch-size:10000}")
+    private int maxBatchSize;
 
     @Autowired
-    public UrlController(UrlService urlService) {
+    public UrlController(UrlService urlService, ClickStatsService clickStatsService, RedirectPolicy redirectPolicy,
+                         Validator validator) {
         this.urlService = urlService;
+        this.clickStatsService = clickStatsService;
+        this.redirectPolicy = redirectPolicy;
+        this.validator = validator;
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -38,14 +67,52 @@ public class UrlController {
         return ResponseEntity.badRequest().body(response);
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(DataIntegrityViolationException ex) {
+        // Повторные попытки сервиса исчерпаны: код или URL одновременно заняты другими запросами
+        logger.warn("Конфликт при сохранении короткой ссылки: {}", ex.getMostSpecificCause().getMessage());
+
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Конфликт");
+        response.put("message", "Короткий код уже занят, повторите запрос");
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(AliasConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleAliasConflict(AliasConflictException ex) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("error", "Конфликт");
+        response.put("message", ex.getMessage());
+        response.put("suggestions", ex.getSuggestions());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    @ExceptionHandler(ShortCodeSpaceExhaustedException.class)
+    public ResponseEntity<Map<String, String>> handleCodeSpaceExhausted(ShortCodeSpaceExhaustedException ex) {
+        logger.error("Не удалось выдать короткий код: {}", ex.getMessage());
+
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Сервис недоступен");
+        response.put("message", "Не удалось выдать короткий код, повторите запрос позже");
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
     @PostMapping("/shorten")
     public ResponseEntity<?> shortenUrl(@Valid @RequestBody ShortenRequest request) {
-        logger.info("Получен запрос на сокращение URL: {}", request.getUrl());
+        logger.debug("Получен запрос на сокращение URL: {}", request.getUrl());
 
         try {
             String shortUrl;
 
-            if (request.getLength() != null) {
+            if (request.getExpiresAt() != null || request.getRedirectStatus() != null || request.getAnalytics() != null) {
+                shortUrl = urlService.shorten(new ShortenCommand(request.getUrl(), request.getLength(),
+                        request.getAlias(), request.getExpiresAt(), request.getRedirectStatus(), request.getAnalytics()));
+            } else if (request.getAlias() != null) {
+                shortUrl = urlService.shortenUrlWithAlias(request.getUrl(), request.getAlias());
+            } else if (request.getLength() != null) {
                 shortUrl = urlService.shortenUrl(request.getUrl(), request.getLength());
             } else {
                 shortUrl = urlService.shortenUrl(request.getUrl());
@@ -65,19 +132,96 @@ public class UrlController {
         }
     }
 
+    @PostMapping("/shorten/batch")
+    public ResponseEntity<?> shortenUrls(@RequestBody List<ShortenRequest> requests) {
+        logger.debug("Получен пакетный запрос на сокращение {} URL", requests.size());
+
+        if (requests.size() > maxBatchSize) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Ошибка валидации");
+            error.put("message", "Пакет не может содержать более " + maxBatchSize + " URL");
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        List<Map<String, Object>> response = new ArrayList<>(requests.size());
+        List<ShortenCommand> commands = new ArrayList<>(requests.size());
+        List<Integer> commandIndexes = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            ShortenRequest request = requests.get(i);
+            if (request == null) {
+                response.add(batchItem(i, null, null, "Элемент пакета не может быть пустым"));
+                continue;
+            }
+            Set<ConstraintViolation<ShortenRequest>> violations = validator.validate(request);
+            if (violations.isEmpty()) {
+                commands.add(new ShortenCommand(request.getUrl(), request.getLength(), request.getAlias(),
+                        request.getExpiresAt(), request.getRedirectStatus(), request.getAnalytics()));
+                commandIndexes.add(i);
+                response.add(null);
+            } else {
+                Map<String, String> errors = new HashMap<>();
+                violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+                response.add(batchItem(i, request.getUrl(), null, errors.toString()));
+            }
+        }
+
+        if (!commands.isEmpty()) {
+            List<ShortenResult> results = urlService.shortenUrls(commands);
+            for (int i = 0; i < results.size(); i++) {
+                int index = commandIndexes.get(i);
+                ShortenResult result = results.get(i);
+                response.set(index, batchItem(index, result.originalUrl(), result.shortUrl(), result.error()));
+            }
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> batchItem(int index, String originalUrl, String shortUrl, String errorMessage) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("index", index);
+        item.put("originalUrl", originalUrl);
+        if (errorMessage == null) {
+            item.put("shortUrl", shortUrl);
+        } else {
+            item.put("error", "Ошибка валидации");
+            item.put("message", errorMessage);
+        }
+        return item;
+    }
+
     @GetMapping("/{shortCode}")
-    public ResponseEntity<Void> redirectToOriginalUrl(@PathVariable String shortCode) {
+    public ResponseEntity<Void> redirectToOriginalUrl(@PathVariable String shortCode, HttpMethod method,
+                                                      @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         logger.debug("Запрос редиректа для короткого кода: {}", shortCode);
 
-        Optional<String> originalUrl = urlService.getOriginalUrl(shortCode);
+        Optional<CachedUrl> link = urlService.getRedirect(shortCode);
 
-        if (originalUrl.isPresent()) {
-            logger.info("Редирект с {} на {}", shortCode, originalUrl.get());
-            return ResponseEntity.status(HttpStatus.FOUND).header("Location", originalUrl.get()).build();
+        if (link.isPresent()) {
+            logger.debug("Редирект с {} на {}", shortCode, link.get().originalUrl());
+            if (method != HttpMethod.HEAD && redirectPolicy.tracksClicks(link.get())) {
+                clickStatsService.recordClick(shortCode);
+            }
+            HttpHeaders headers = new HttpHeaders();
+            int status = redirectPolicy.writeRedirect(link.get(), ifNoneMatch, Instant.now(), headers::set);
+            return ResponseEntity.status(status).headers(headers).build();
         } else {
-            logger.warn("URL не найден для короткого кода: {}", shortCode);
+            logger.debug("URL не найден для короткого кода: {}", shortCode);
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{shortCode}/stats")
+    public ResponseEntity<Map<String, Object>> getStats(@PathVariable String shortCode) {
+        if (urlService.getOriginalUrl(shortCode).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("shortCode", shortCode);
+        response.put("clicks", clickStatsService.getClicks(shortCode));
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/health")
@@ -0,0 +1,45 @@
+package com.github.klijjen.urlshortener.controller;
+
+import com.github.klijjen.urlshortener.service.UrlTransferService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Служебные эндпоинты выгрузки и загрузки всей таблицы ссылок. Собственной аутентификации у них нет,
+ * поэтому они включаются только явно (app.transfer.enabled) на экземпляре, закрытом от внешнего трафика.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnExpression("${app.transfer.enabled:false} and '${app.storage.type:jpa}' == 'jpa'")
+public class UrlTransferController {
+    private final UrlTransferService transferService;
+
+    @Autowired
+    public UrlTransferController(UrlTransferService transferService) {
+        this.transferService = transferService;
+    }
+
+    @GetMapping(value = "/admin/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUrls() {
+        StreamingResponseBody body = transferService::exportTo;
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"urls.ndjson\"")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PostMapping(value = "/admin/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<UrlTransferService.ImportResult> importUrls(InputStream body) throws IOException {
+        return ResponseEntity.ok(transferService.importFrom(body));
+    }
+}
@@ -1,20 +1,58 @@
 package com.github.klijjen.urlshortener.controller.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import jakarta.validation.constraints.*;
 
+import java.time.Instant;
+
 public class ShortenRequest {
     @NotBlank(message = "URL обязателен")
     @Size(max = 2048, message = "URL не должен превышать 2048 символов")
-    @Pattern(regexp = "^(https?|ftp)://.*", message = "Неверный формат URL. Должен начинаться с http://, https:// или ftp://")
+    // Формат проверяет сервис при приведении к каноническому виду, IllegalArgumentException дает тот же ответ 400
     private String url;
 
     @Min(value = 4, message = "Длина короткой ссылки должна быть не менее 4 символов")
     @Max(value = 12, message = "Длина короткой ссылки не может превышать 12 символа")
     private Integer length;
 
+    @Size(min = 3, max = 32, message = "Псевдоним должен содержать от 3 до 32 символов")
+    @Pattern(regexp = "^[A-Za-z0-9_-]*$", message = "Псевдоним может содержать только латинские буквы, цифры, '-' и '_'")
+    private String alias;
+
+    @Future(message = "Срок действия ссылки должен быть в будущем")
+    private Instant expiresAt;
+
+    // 301, 302, 307 или 308; не задан - код по умолчанию
+    private Integer redirectStatus;
+
+    // Учет переходов; не задан - учитываются, если ссылка отдается кодом 302
+    private Boolean analytics;
+
     public ShortenRequest(String url, Integer length) {
+        this(url, length, null, null);
+    }
+
+    public ShortenRequest(String url, Integer length, String alias) {
+        this(url, length, alias, null);
+    }
+
+    public ShortenRequest(String url, Integer length, String alias, Instant expiresAt) {
+        this(url, length, alias, expiresAt, null);
+    }
+
+    public ShortenRequest(String url, Integer length, String alias, Instant expiresAt, Integer redirectStatus) {
+        this(url, length, alias, expiresAt, redirectStatus, null);
+    }
+
+    @JsonCreator
+    public ShortenRequest(String url, Integer length, String alias, Instant expiresAt, Integer redirectStatus,
+                          Boolean analytics) {
         this.url = url;
         this.length = length;
+        this.alias = alias;
+        this.expiresAt = expiresAt;
+        this.redirectStatus = redirectStatus;
+        this.analytics = analytics;
     }
 
     public String getUrl() {
@@ -28,4 +66,20 @@ public class ShortenRequest {
     public Integer getLength() {
         return length;
     }
-}
\ No newline at end of file
+
+    public String getAlias() {
+        return alias;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Integer getRedirectStatus() {
+        return redirectStatus;
+    }
+
+    public Boolean getAnalytics() {
+        return analytics;
+    }
+}
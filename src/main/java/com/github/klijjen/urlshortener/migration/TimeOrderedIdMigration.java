@@ -0,0 +1,94 @@
+package com.github.klijjen.urlshortener.migration;
+
+import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static com.github.klijjen.urlshortener.Utils.getTimeOrderedUUID;
+
+/**
+ * Заменяет случайные идентификаторы (UUIDv4) существующих строк на UUIDv7 со временем из createdAt,
+ * чтобы старые строки лежали в индексе первичного ключа в порядке создания, а не вперемешку с новыми.
+ * Строки без createdAt получают начало эпохи и оказываются в начале индекса.
+ * Таблица обходится пачками по возрастанию id, каждая пачка - отдельная транзакция. На id никто не ссылается:
+ * статистика и кэш работают по shortCode, поэтому замену можно выполнять на работающем сервисе.
+ * Переписанная строка может снова встретиться дальше по обходу и пропускается по версии UUID.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "jpa", matchIfMissing = true)
+public class TimeOrderedIdMigration implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(TimeOrderedIdMigration.class);
+    private static final UUID FIRST = new UUID(0, 0);
+    private final UrlRepository urlRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.migration.time-ordered-ids.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.migration.time-ordered-ids.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    public TimeOrderedIdMigration(UrlRepository urlRepository, TransactionTemplate transactionTemplate) {
+        this.urlRepository = urlRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            migrate();
+        }
+    }
+
+    public long migrate() {
+        UUID lastId = FIRST;
+        long updated = 0;
+
+        while (lastId != null) {
+            UUID after = lastId;
+            BatchResult result = transactionTemplate.execute(status -> migrateBatch(after));
+            updated += result.updated();
+            lastId = result.lastId();
+        }
+
+        if (updated > 0) {
+            logger.info("Идентификаторы заменены на упорядоченные по времени для {} записей", updated);
+        }
+        return updated;
+    }
+
+    private BatchResult migrateBatch(UUID after) {
+        List<UrlEntity> batch = urlRepository.findAfterId(after, PageRequest.ofSize(batchSize));
+        if (batch.isEmpty()) {
+            return new BatchResult(0, null);
+        }
+
+        int updated = 0;
+        for (UrlEntity entity : batch) {
+            if (entity.getId().version() != 7) {
+                Instant createdAt = entity.getCreatedAt() != null ? entity.getCreatedAt() : Instant.EPOCH;
+                updated += urlRepository.updateId(entity.getId(), getTimeOrderedUUID(createdAt));
+            }
+        }
+
+        UUID lastId = batch.size() == batchSize ? batch.get(batch.size() - 1).getId() : null;
+        return new BatchResult(updated, lastId);
+    }
+
+    private record BatchResult(int updated, UUID lastId) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.klijjen.urlshortener.migration;
+
+import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.github.klijjen.urlshortener.Utils.hashUrl;
+
+/**
+ * Заполняет urlHash у строк, созданных до появления колонки. Такие строки узнаются по пустому createdAt:
+ * у новых строк без хэша (псевдонимы, ссылки со сроком действия, повторы при загрузке) он заполнен.
+ * Строки обходятся пачками по возрастанию shortCode, каждая пачка - отдельная транзакция.
+ * Дубликаты URL среди старых строк остаются без хэша: уникальный индекс допускает один хэш на URL.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "jpa", matchIfMissing = true)
+public class UrlHashBackfill implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(UrlHashBackfill.class);
+    private final UrlRepository urlRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.migration.url-hash-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.migration.url-hash-backfill.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    public UrlHashBackfill(UrlRepository urlRepository, TransactionTemplate transactionTemplate) {
+        this.urlRepository = urlRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            backfill();
+        }
+    }
+
+    public long backfill() {
+        String lastShortCode = "";
+        long updated = 0;
+
+        while (lastShortCode != null) {
+            String after = lastShortCode;
+            BatchResult result = transactionTemplate.execute(status -> backfillBatch(after));
+            updated += result.updated();
+            lastShortCode = result.lastShortCode();
+        }
+
+        if (updated > 0) {
+            logger.info("Заполнены хэши URL для {} существующих записей", updated);
+        }
+        return updated;
+    }
+
+    private BatchResult backfillBatch(String after) {
+        Slice<UrlEntity> batch = urlRepository.findByUrlHashIsNullAndCreatedAtIsNullAndShortCodeGreaterThanOrderByShortCode(
+                after, PageRequest.ofSize(batchSize));
+        if (batch.isEmpty()) {
+            return new BatchResult(0, null);
+        }
+
+        List<UrlEntity> entities = batch.getContent();
+        Map<UrlEntity, String> hashes = new HashMap<>();
+        for (UrlEntity entity : entities) {
+            hashes.put(entity, hashUrl(entity.getOriginalUrl()));
+        }
+
+        Set<String> taken = new HashSet<>(urlRepository.findExistingUrlHashes(hashes.values()));
+        int updated = 0;
+        for (UrlEntity entity : entities) {
+            String hash = hashes.get(entity);
+            if (taken.add(hash)) {
+                entity.setUrlHash(hash);
+                updated++;
+            }
+        }
+
+        String lastShortCode = batch.hasNext() ? entities.get(entities.size() - 1).getShortCode() : null;
+        return new BatchResult(updated, lastShortCode);
+    }
+
+    private record BatchResult(int updated, String lastShortCode) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.klijjen.urlshortener.repository;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "url_stats")
+public class ClickStatsEntity {
+
+    @Id
+    private String shortCode;
+
+    @Column(nullable = false)
+    private long clicks;
+
+    protected ClickStatsEntity() {
+    }
+
+    public ClickStatsEntity(String shortCode, long clicks) {
+        this.shortCode = shortCode;
+        this.clicks = clicks;
+    }
+
+    public String getShortCode() {
+        return shortCode;
+    }
+
+    public long getClicks() {
+        return clicks;
+    }
+}
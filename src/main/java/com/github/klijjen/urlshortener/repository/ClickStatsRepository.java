@@ -0,0 +1,8 @@
+package com.github.klijjen.urlshortener.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClickStatsRepository extends JpaRepository<ClickStatsEntity, String> {
+}
@@ -0,0 +1,34 @@
+package com.github.klijjen.urlshortener.repository;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "code_sequences")
+public class CodeSequenceEntity {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private long nextValue;
+
+    protected CodeSequenceEntity() {
+    }
+
+    public CodeSequenceEntity(String name, long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
@@ -0,0 +1,295 @@
+package com.github.klijjen.urlshortener.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Журнал ссылок только на добавление, отображенный в память областями фиксированного размера (степень двойки).
+ * Адрес записи - смещение в файле; запись не пересекает границу области, остаток области помечается PADDING.
+ * <p>
+ * Формат записи: длина (int, пишется последней - оборванная при сбое запись не видна), флаги (byte: бит 0 - запись
+ * в индексе по URL, биты 1-4 - код редиректа минус 300, 0 - по умолчанию, биты 5-6 - учет переходов: 0 - по коду
+ * редиректа, 1 - выключен, 2 - включен),
+ * срок действия в миллисекундах (long, 0 - бессрочная), длина кода (byte), длина URL (int), код (ASCII), URL (UTF-8).
+ * Нулевая длина означает конец журнала: файл растет целыми областями, и незаписанная часть заполнена нулями.
+ */
+final class MappedUrlLog implements Closeable {
+    static final byte FLAG_DEDUPLICATED = 1;
+    private static final int REDIRECT_STATUS_SHIFT = 1;
+    private static final int REDIRECT_STATUS_MASK = 0xF;
+    private static final int ANALYTICS_SHIFT = 5;
+    private static final int ANALYTICS_MASK = 0x3;
+    private static final long MAGIC = 0x55524C4C4F473031L;
+    private static final int FILE_HEADER_SIZE = 16;
+    private static final int PADDING = -1;
+    private static final int FLAGS_OFFSET = 4;
+    private static final int EXPIRES_AT_OFFSET = 5;
+    private static final int CODE_LENGTH_OFFSET = 13;
+    private static final int URL_LENGTH_OFFSET = 14;
+    private static final int RECORD_HEADER_SIZE = 18;
+
+    /**
+     * Обход записей при перестроении индекса: без чтения URL и создания объектов.
+     */
+    interface RecordVisitor {
+        void visit(long address);
+    }
+
+    private final FileChannel channel;
+    private final int regionBits;
+    private final int regionSize;
+    private volatile MappedByteBuffer[] regions;
+    private long end = FILE_HEADER_SIZE;
+
+    MappedUrlLog(Path file, int regionSize) throws IOException {
+        if (Integer.bitCount(regionSize) != 1 || regionSize < 4096 || regionSize > 1 << 30) {
+            throw new IllegalArgumentException("Размер области журнала должен быть степенью двойки от 4 КБ до 1 ГБ: " + regionSize);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.regionBits = Integer.numberOfTrailingZeros(regionSize);
+        this.regionSize = regionSize;
+
+        int count = (int) Math.max(1, (channel.size() + regionSize - 1) >>> regionBits);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            mapped[i] = mapRegion(i);
+        }
+        this.regions = mapped;
+
+        long magic = mapped[0].getLong(0);
+        if (magic == 0) {
+            mapped[0].putLong(0, MAGIC);
+        } else if (magic != MAGIC) {
+            channel.close();
+            throw new IOException("Файл не является журналом ссылок: " + file);
+        }
+    }
+
+    private MappedByteBuffer mapRegion(int index) throws IOException {
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, (long) index << regionBits, regionSize);
+        region.order(ByteOrder.nativeOrder());
+        return region;
+    }
+
+    long scan(RecordVisitor visitor) {
+        return scan(FILE_HEADER_SIZE, visitor);
+    }
+
+    /**
+     * Обходит записи начиная с from и возвращает конец журнала; он же становится позицией следующей записи.
+     */
+    long scan(long from, RecordVisitor visitor) {
+        long position = from;
+        while (true) {
+            int region = (int) (position >>> regionBits);
+            int offset = (int) position & (regionSize - 1);
+            if (region >= regions.length) {
+                break;
+            }
+            int length = regionSize - offset < 4 ? PADDING : regions[region].getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length == PADDING) {
+                position = (long) (region + 1) << regionBits;
+                continue;
+            }
+            visitor.visit(position);
+            position += length;
+        }
+        end = position;
+        return position;
+    }
+
+    /**
+     * Дописывает запись и возвращает ее адрес. Вызывается под блокировкой записи.
+     */
+    long append(byte flags, long expiresAt, String shortCode, byte[] originalUrl) throws IOException {
+        int length = RECORD_HEADER_SIZE + shortCode.length() + originalUrl.length;
+        if (length > regionSize) {
+            throw new IllegalArgumentException("Запись не помещается в область журнала: " + length + " байт");
+        }
+        int offset = (int) end & (regionSize - 1);
+        if (regionSize - offset < length) {
+            if (regionSize - offset >= 4) {
+                region(end).putInt(offset, PADDING);
+            }
+            end = ((end >>> regionBits) + 1) << regionBits;
+            offset = 0;
+        }
+        int regionIndex = (int) (end >>> regionBits);
+        if (regionIndex >= regions.length) {
+            MappedByteBuffer[] grown = Arrays.copyOf(regions, regionIndex + 1);
+            grown[regionIndex] = mapRegion(regionIndex);
+            regions = grown;
+        }
+
+        MappedByteBuffer region = regions[regionIndex];
+        region.put(offset + FLAGS_OFFSET, flags);
+        region.putLong(offset + EXPIRES_AT_OFFSET, expiresAt);
+        region.put(offset + CODE_LENGTH_OFFSET, (byte) shortCode.length());
+        region.putInt(offset + URL_LENGTH_OFFSET, originalUrl.length);
+        int codeOffset = offset + RECORD_HEADER_SIZE;
+        for (int i = 0; i < shortCode.length(); i++) {
+            region.put(codeOffset + i, (byte) shortCode.charAt(i));
+        }
+        region.put(codeOffset + shortCode.length(), originalUrl);
+        region.putInt(offset, length);
+
+        long address = end;
+        end += length;
+        return address;
+    }
+
+    long end() {
+        return end;
+    }
+
+    private MappedByteBuffer region(long address) {
+        return regions[(int) (address >>> regionBits)];
+    }
+
+    private int offset(long address) {
+        return (int) address & (regionSize - 1);
+    }
+
+    byte flags(long address) {
+        return region(address).get(offset(address) + FLAGS_OFFSET);
+    }
+
+    static byte linkFlags(Integer redirectStatus, Boolean analytics) {
+        int flags = redirectStatus != null ? (redirectStatus - 300 & REDIRECT_STATUS_MASK) << REDIRECT_STATUS_SHIFT : 0;
+        if (analytics != null) {
+            flags |= (analytics ? 2 : 1) << ANALYTICS_SHIFT;
+        }
+        return (byte) flags;
+    }
+
+    Integer redirectStatus(long address) {
+        int status = flags(address) >>> REDIRECT_STATUS_SHIFT & REDIRECT_STATUS_MASK;
+        return status != 0 ? 300 + status : null;
+    }
+
+    Boolean analytics(long address) {
+        int analytics = flags(address) >>> ANALYTICS_SHIFT & ANALYTICS_MASK;
+        return analytics != 0 ? analytics == 2 : null;
+    }
+
+    long expiresAt(long address) {
+        return region(address).getLong(offset(address) + EXPIRES_AT_OFFSET);
+    }
+
+    String shortCode(long address) {
+        MappedByteBuffer region = region(address);
+        int offset = offset(address);
+        byte[] code = new byte[region.get(offset + CODE_LENGTH_OFFSET)];
+        region.get(offset + RECORD_HEADER_SIZE, code);
+        return new String(code, StandardCharsets.US_ASCII);
+    }
+
+    String originalUrl(long address) {
+        MappedByteBuffer region = region(address);
+        int offset = offset(address);
+        byte[] url = new byte[region.getInt(offset + URL_LENGTH_OFFSET)];
+        region.get(offset + RECORD_HEADER_SIZE + region.get(offset + CODE_LENGTH_OFFSET), url);
+        return new String(url, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Сравнение кода с записью на месте, без копирования байтов из отображения.
+     */
+    boolean shortCodeEquals(long address, String shortCode) {
+        MappedByteBuffer region = region(address);
+        int offset = offset(address);
+        if (region.get(offset + CODE_LENGTH_OFFSET) != shortCode.length()) {
+            return false;
+        }
+        int codeOffset = offset + RECORD_HEADER_SIZE;
+        for (int i = 0; i < shortCode.length(); i++) {
+            if (region.get(codeOffset + i) != (byte) shortCode.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean originalUrlEquals(long address, byte[] originalUrl) {
+        MappedByteBuffer region = region(address);
+        int offset = offset(address);
+        if (region.getInt(offset + URL_LENGTH_OFFSET) != originalUrl.length) {
+            return false;
+        }
+        int urlOffset = offset + RECORD_HEADER_SIZE + region.get(offset + CODE_LENGTH_OFFSET);
+        for (int i = 0; i < originalUrl.length; i++) {
+            if (region.get(urlOffset + i) != originalUrl[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long shortCodeHash(long address) {
+        MappedByteBuffer region = region(address);
+        int offset = offset(address);
+        return hash(region, offset + RECORD_HEADER_SIZE, region.get(offset + CODE_LENGTH_OFFSET));
+    }
+
+    long originalUrlHash(long address) {
+        MappedByteBuffer region = region(address);
+        int offset = offset(address);
+        return hash(region, offset + RECORD_HEADER_SIZE + region.get(offset + CODE_LENGTH_OFFSET),
+                region.getInt(offset + URL_LENGTH_OFFSET));
+    }
+
+    // FNV-1a с перемешиванием из MurmurHash3: индекс берет младшие биты хэша
+    static long hash(String shortCode) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < shortCode.length(); i++) {
+            hash = (hash ^ (byte) shortCode.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    static long hash(byte[] bytes) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : bytes) {
+            hash = (hash ^ b) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long hash(MappedByteBuffer region, int offset, int length) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ region.get(offset + i)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    void force() {
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
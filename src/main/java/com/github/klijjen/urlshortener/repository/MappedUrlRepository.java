@@ -0,0 +1,257 @@
+package com.github.klijjen.urlshortener.repository;
+
+import com.github.klijjen.urlshortener.config.EmbeddedStorageConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Хранилище ссылок без SQL-базы для edge-узлов (app.storage.type=embedded): журнал {@link MappedUrlLog}
+ * и два индекса {@link OffHeapHashIndex} - по короткому коду и по URL для дедупликации. Данные и индексы лежат
+ * в отображенных в память файлах вне кучи, поэтому размер кучи и нагрузка на GC не зависят от числа ссылок.
+ * <p>
+ * При штатной остановке индексы сохраняются и при следующем старте только отображаются в память; после
+ * аварийного завершения они перестраиваются проходом по журналу, который читает коды и URL на месте,
+ * не создавая объектов. Удаления нет: истекшие ссылки остаются в журнале и отсекаются при поиске.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "embedded")
+public class MappedUrlRepository implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(MappedUrlRepository.class);
+    private static final long NO_EXPIRY = 0;
+
+    private final Path directory;
+    private final int expectedLinks;
+    private final MappedUrlLog log;
+    private final OffHeapHashIndex.KeyMatcher<String> shortCodeMatcher;
+    private final OffHeapHashIndex.KeyMatcher<byte[]> originalUrlMatcher;
+    // Не монитор: под блокировкой отображаются новые области и переименовываются файлы, а виртуальный поток,
+    // ждущий ввода-вывода внутри synchronized, занимает поток-носитель
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile OffHeapHashIndex codeIndex;
+    private volatile OffHeapHashIndex urlIndex;
+    private boolean closed;
+
+    @Autowired
+    public MappedUrlRepository(EmbeddedStorageConfig config) {
+        this(config.getPath(), config.getExpectedLinks(), (int) Math.min(Integer.MAX_VALUE, config.getRegionSize().toBytes()));
+    }
+
+    public MappedUrlRepository(Path directory, int expectedLinks, int regionSize) {
+        this.directory = directory;
+        this.expectedLinks = expectedLinks;
+        try {
+            Files.createDirectories(directory);
+            this.log = new MappedUrlLog(directory.resolve("urls.log"), regionSize);
+            this.shortCodeMatcher = log::shortCodeEquals;
+            this.originalUrlMatcher = log::originalUrlEquals;
+            openIndexes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть хранилище ссылок в " + directory, e);
+        }
+    }
+
+    private void openIndexes() throws IOException {
+        OffHeapHashIndex codes = OffHeapHashIndex.openIfClean(directory.resolve("urls-code.idx"));
+        OffHeapHashIndex urls = OffHeapHashIndex.openIfClean(directory.resolve("urls-url.idx"));
+        if (codes != null && urls != null && codes.logEnd() == urls.logEnd()) {
+            codeIndex = codes;
+            urlIndex = urls;
+            // Записи после сохраненной позиции появиться не должны, но проход по хвосту журнала ничего не стоит
+            log.scan(codes.logEnd(), this::index);
+            logger.info("Индекс хранилища ссылок открыт: {} ссылок", codeIndex.size());
+        } else {
+            long started = System.nanoTime();
+            codeIndex = OffHeapHashIndex.create(directory.resolve("urls-code.idx"), expectedLinks);
+            urlIndex = OffHeapHashIndex.create(directory.resolve("urls-url.idx"), expectedLinks);
+            log.scan(this::index);
+            logger.info("Индекс хранилища ссылок перестроен по журналу: {} ссылок за {} мс",
+                    codeIndex.size(), (System.nanoTime() - started) / 1_000_000);
+        }
+        codeIndex.markOpen();
+        urlIndex.markOpen();
+    }
+
+    private void index(long address) {
+        try {
+            boolean deduplicated = (log.flags(address) & MappedUrlLog.FLAG_DEDUPLICATED) != 0;
+            addToIndexes(address, log.shortCodeHash(address), deduplicated, deduplicated ? log.originalUrlHash(address) : 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void addToIndexes(long address, long shortCodeHash, boolean deduplicated, long originalUrlHash) throws IOException {
+        codeIndex.insert(shortCodeHash, address);
+        if (codeIndex.isFull()) {
+            codeIndex = codeIndex.grow();
+        }
+        if (deduplicated) {
+            urlIndex.insert(originalUrlHash, address);
+            if (urlIndex.isFull()) {
+                urlIndex = urlIndex.grow();
+            }
+        }
+    }
+
+    /**
+     * Поиск без блокировок и без копирования: код сравнивается с записью прямо в отображении,
+     * из журнала читается только URL найденной записи.
+     */
+    public Optional<UrlRecord> findRecord(String shortCode, Instant now) {
+        if (!isAscii(shortCode)) {
+            return Optional.empty();
+        }
+        long address = codeIndex.find(MappedUrlLog.hash(shortCode), shortCode, shortCodeMatcher);
+        if (address < 0) {
+            return Optional.empty();
+        }
+        long expiresAt = log.expiresAt(address);
+        if (expiresAt != NO_EXPIRY && expiresAt <= now.toEpochMilli()) {
+            return Optional.empty();
+        }
+        return Optional.of(new UrlRecord(shortCode, log.originalUrl(address),
+                expiresAt != NO_EXPIRY ? Instant.ofEpochMilli(expiresAt) : null, log.redirectStatus(address),
+                log.analytics(address)));
+    }
+
+    public Optional<String> findOriginalUrl(String shortCode, Instant now) {
+        return findRecord(shortCode, now).map(UrlRecord::originalUrl);
+    }
+
+    public boolean existsByShortCode(String shortCode) {
+        return isAscii(shortCode) && codeIndex.find(MappedUrlLog.hash(shortCode), shortCode, shortCodeMatcher) >= 0;
+    }
+
+    /**
+     * Код бессрочной ссылки, сохраненной через {@link #insertDeduplicated}, для того же URL.
+     */
+    public Optional<String> findShortCodeByUrl(String originalUrl) {
+        byte[] url = originalUrl.getBytes(StandardCharsets.UTF_8);
+        long address = urlIndex.find(MappedUrlLog.hash(url), url, originalUrlMatcher);
+        return address < 0 ? Optional.empty() : Optional.of(log.shortCode(address));
+    }
+
+    public boolean insert(String shortCode, String originalUrl, Instant expiresAt) {
+        return insert(shortCode, originalUrl, expiresAt, null, null);
+    }
+
+    /**
+     * Сохраняет ссылку без дедупликации (псевдонимы, ссылки со сроком действия, с кодом редиректа
+     * или признаком учета переходов).
+     *
+     * @return false, если код уже занят
+     */
+    public boolean insert(String shortCode, String originalUrl, Instant expiresAt, Integer redirectStatus,
+                          Boolean analytics) {
+        validateShortCode(shortCode);
+        byte[] url = originalUrl.getBytes(StandardCharsets.UTF_8);
+        long shortCodeHash = MappedUrlLog.hash(shortCode);
+        writeLock.lock();
+        try {
+            if (codeIndex.find(shortCodeHash, shortCode, shortCodeMatcher) >= 0) {
+                return false;
+            }
+            append(MappedUrlLog.linkFlags(redirectStatus, analytics),
+                    expiresAt != null ? expiresAt.toEpochMilli() : NO_EXPIRY,
+                    shortCode, url, shortCodeHash, 0);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Сохраняет бессрочную ссылку, если этот URL еще не сокращен. Проверка и вставка выполняются
+     * под одной блокировкой, поэтому параллельные запросы одного URL получают один код.
+     *
+     * @return код существующей ссылки на URL, shortCode для новой записи или null, если код занят
+     */
+    public String insertDeduplicated(String shortCode, String originalUrl) {
+        validateShortCode(shortCode);
+        byte[] url = originalUrl.getBytes(StandardCharsets.UTF_8);
+        long shortCodeHash = MappedUrlLog.hash(shortCode);
+        long originalUrlHash = MappedUrlLog.hash(url);
+        writeLock.lock();
+        try {
+            long existing = urlIndex.find(originalUrlHash, url, originalUrlMatcher);
+            if (existing >= 0) {
+                return log.shortCode(existing);
+            }
+            if (codeIndex.find(shortCodeHash, shortCode, shortCodeMatcher) >= 0) {
+                return null;
+            }
+            append(MappedUrlLog.FLAG_DEDUPLICATED, NO_EXPIRY, shortCode, url, shortCodeHash, originalUrlHash);
+            return shortCode;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void append(byte flags, long expiresAt, String shortCode, byte[] url, long shortCodeHash, long originalUrlHash) {
+        if (closed) {
+            throw new IllegalStateException("Хранилище ссылок закрыто");
+        }
+        try {
+            long address = log.append(flags, expiresAt, shortCode, url);
+            addToIndexes(address, shortCodeHash, (flags & MappedUrlLog.FLAG_DEDUPLICATED) != 0, originalUrlHash);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать ссылку в журнал", e);
+        }
+    }
+
+    private static void validateShortCode(String shortCode) {
+        if (shortCode.length() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Короткий код длиннее " + Byte.MAX_VALUE + " символов");
+        }
+        if (!isAscii(shortCode)) {
+            throw new IllegalArgumentException("Короткий код может содержать только символы ASCII: " + shortCode);
+        }
+    }
+
+    // Коды хранятся по байту на символ; код с другими символами сохранен быть не мог
+    private static boolean isAscii(String shortCode) {
+        for (int i = 0; i < shortCode.length(); i++) {
+            if (shortCode.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long count() {
+        return codeIndex.size();
+    }
+
+    /**
+     * Сбрасывает журнал на диск и помечает индексы сохраненными: следующий старт не перестраивает их.
+     */
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            log.force();
+            codeIndex.markClean(log.end());
+            urlIndex.markClean(log.end());
+            log.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
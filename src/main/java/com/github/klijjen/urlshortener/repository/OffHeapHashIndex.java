@@ -0,0 +1,177 @@
+package com.github.klijjen.urlshortener.repository;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Хэш-таблица с открытой адресацией в отображенном в память файле: 64-битный хэш ключа -> адрес записи в журнале.
+ * Сами ключи не хранятся, совпадение проверяется по записи в журнале. Слот - 16 байт: хэш и адрес + 1 (0 - пустой слот).
+ * <p>
+ * Вставка выполняется под внешней блокировкой, чтение - без блокировок: адрес публикуется release-записью
+ * после хэша и записи в журнал, читатель получает его acquire-чтением до остальных данных.
+ * При заполнении на 3/4 таблица перестраивается в файл вдвое большего размера; старое отображение остается
+ * действительным для читателей, которые начали поиск до замены.
+ */
+final class OffHeapHashIndex {
+    private static final int MAGIC = 0x55524C49;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 16;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CLEAN_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 16;
+    private static final int LOG_END_OFFSET = 24;
+    // Отображение одним буфером ограничено 2 ГБ
+    static final int MAX_CAPACITY = 1 << 26;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /**
+     * Сравнение ключа с записью журнала по адресу.
+     */
+    interface KeyMatcher<K> {
+        boolean matches(long address, K key);
+    }
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private int size;
+
+    private OffHeapHashIndex(Path file, MappedByteBuffer buffer, int capacity, int size) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.size = size;
+    }
+
+    static OffHeapHashIndex create(Path file, int expectedKeys) throws IOException {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) Math.min(MAX_CAPACITY, expectedKeys * 4L / 3)) - 1) << 1;
+        Files.deleteIfExists(file);
+        OffHeapHashIndex index = new OffHeapHashIndex(file, map(file, capacity), capacity, 0);
+        index.buffer.putInt(MAGIC_OFFSET, MAGIC);
+        index.buffer.putLong(CAPACITY_OFFSET, capacity);
+        return index;
+    }
+
+    /**
+     * Открывает индекс, сохраненный при штатной остановке; null, если файла нет или процесс завершился аварийно.
+     */
+    static OffHeapHashIndex openIfClean(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER_SIZE) {
+            return null;
+        }
+        int capacity;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.nativeOrder());
+            long storedCapacity = header.getLong(CAPACITY_OFFSET);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(CLEAN_OFFSET) != 1
+                    || storedCapacity <= 0 || storedCapacity > MAX_CAPACITY || Long.bitCount(storedCapacity) != 1
+                    || Files.size(file) != HEADER_SIZE + storedCapacity * SLOT_SIZE) {
+                return null;
+            }
+            capacity = (int) storedCapacity;
+        }
+        MappedByteBuffer buffer = map(file, capacity);
+        return new OffHeapHashIndex(file, buffer, capacity, (int) buffer.getLong(SIZE_OFFSET));
+    }
+
+    private static MappedByteBuffer map(Path file, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            buffer.order(ByteOrder.nativeOrder());
+            return buffer;
+        }
+    }
+
+    /**
+     * Адрес записи с совпавшим ключом или -1.
+     */
+    <K> long find(long hash, K key, KeyMatcher<K> matcher) {
+        int slot = (int) hash & mask;
+        while (true) {
+            int offset = HEADER_SIZE + slot * SLOT_SIZE;
+            long address = (long) LONGS.getAcquire(buffer, offset + 8);
+            if (address == 0) {
+                return -1;
+            }
+            if (buffer.getLong(offset) == hash && matcher.matches(address - 1, key)) {
+                return address - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Добавляет ключ, которого нет в индексе. Вызывается под блокировкой записи.
+     */
+    void insert(long hash, long address) {
+        int slot = (int) hash & mask;
+        while ((long) LONGS.getAcquire(buffer, HEADER_SIZE + slot * SLOT_SIZE + 8) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        int offset = HEADER_SIZE + slot * SLOT_SIZE;
+        buffer.putLong(offset, hash);
+        LONGS.setRelease(buffer, offset + 8, address + 1);
+        size++;
+    }
+
+    boolean isFull() {
+        return size >= capacity - (capacity >>> 2);
+    }
+
+    /**
+     * Перестраивает индекс в таблицу вдвое большего размера. Хэши хранятся в слотах, поэтому журнал не читается.
+     */
+    OffHeapHashIndex grow() throws IOException {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Индекс коротких ссылок заполнен: " + size + " записей");
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        OffHeapHashIndex grown = create(tmp, capacity * 2 * 3 / 4);
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = HEADER_SIZE + slot * SLOT_SIZE;
+            long address = buffer.getLong(offset + 8);
+            if (address != 0) {
+                grown.insert(buffer.getLong(offset), address - 1);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new OffHeapHashIndex(file, grown.buffer, grown.capacity, grown.size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long logEnd() {
+        return buffer.getLong(LOG_END_OFFSET);
+    }
+
+    /**
+     * Снимает признак штатной остановки: после аварийного завершения индекс будет перестроен по журналу.
+     */
+    void markOpen() {
+        buffer.putInt(CLEAN_OFFSET, 0);
+        buffer.force();
+    }
+
+    void markClean(long logEnd) {
+        buffer.putLong(SIZE_OFFSET, size);
+        buffer.putLong(LOG_END_OFFSET, logEnd);
+        buffer.force();
+        buffer.putInt(CLEAN_OFFSET, 1);
+        buffer.force();
+    }
+}
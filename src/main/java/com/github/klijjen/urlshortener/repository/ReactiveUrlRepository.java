@@ -0,0 +1,92 @@
+package com.github.klijjen.urlshortener.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+
+/**
+ * Доступ к таблице urls через R2DBC для реактивного варианта приложения: те же запросы,
+ * что и в {@link UrlRepository}, без блокировки потока на время обращения к базе.
+ * Схема по-прежнему создается Hibernate, поэтому имена колонок следуют его соглашению.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUrlRepository {
+    private static final String INSERT_SQL = """
+            INSERT INTO urls (id, original_url, short_code, url_hash, created_at, expires_at, redirect_status, analytics)
+            VALUES (:id, :originalUrl, :shortCode, :urlHash, :createdAt, :expiresAt, :redirectStatus, :analytics)
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveUrlRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<UrlRecord> findByShortCode(String shortCode) {
+        return databaseClient.sql("SELECT short_code, original_url, expires_at, redirect_status, analytics "
+                        + "FROM urls WHERE short_code = :shortCode")
+                .bind("shortCode", shortCode)
+                .map((row, metadata) -> new UrlRecord(
+                        row.get("short_code", String.class),
+                        row.get("original_url", String.class),
+                        toInstant(row.get("expires_at", OffsetDateTime.class)),
+                        row.get("redirect_status", Integer.class),
+                        row.get("analytics", Boolean.class)))
+                .one();
+    }
+
+    public Mono<String> findShortCodeByUrlHash(String urlHash) {
+        return databaseClient.sql("SELECT short_code FROM urls WHERE url_hash = :urlHash")
+                .bind("urlHash", urlHash)
+                .map((row, metadata) -> row.get("short_code", String.class))
+                .one();
+    }
+
+    public Flux<String> findExistingShortCodes(Collection<String> shortCodes) {
+        return databaseClient.sql("SELECT short_code FROM urls WHERE short_code IN (:shortCodes)")
+                .bind("shortCodes", shortCodes)
+                .map((row, metadata) -> row.get("short_code", String.class))
+                .all();
+    }
+
+    /**
+     * Всегда INSERT: занятый код или хэш завершает Mono ошибкой DataIntegrityViolationException.
+     */
+    public Mono<Void> insert(UrlEntity entity) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(INSERT_SQL)
+                .bind("id", entity.getId())
+                .bind("originalUrl", entity.getOriginalUrl())
+                .bind("shortCode", entity.getShortCode())
+                .bind("createdAt", toOffsetDateTime(entity.getCreatedAt()));
+        spec = entity.getUrlHash() != null ? spec.bind("urlHash", entity.getUrlHash()) : spec.bindNull("urlHash", String.class);
+        spec = entity.getExpiresAt() != null
+                ? spec.bind("expiresAt", toOffsetDateTime(entity.getExpiresAt()))
+                : spec.bindNull("expiresAt", OffsetDateTime.class);
+        spec = entity.getRedirectStatus() != null
+                ? spec.bind("redirectStatus", entity.getRedirectStatus())
+                : spec.bindNull("redirectStatus", Integer.class);
+        spec = entity.getAnalytics() != null
+                ? spec.bind("analytics", entity.getAnalytics())
+                : spec.bindNull("analytics", Boolean.class);
+        return spec.then();
+    }
+
+    // Колонки Instant создаются как timestamp with time zone; OffsetDateTime поддерживают оба драйвера - H2 и Postgres
+    private static OffsetDateTime toOffsetDateTime(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private static Instant toInstant(OffsetDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant() : null;
+    }
+}
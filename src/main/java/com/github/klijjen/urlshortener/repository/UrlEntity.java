@@ -1,15 +1,30 @@
 package com.github.klijjen.urlshortener.repository;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 
+import java.time.Instant;
 import java.util.*;
 
-import static com.github.klijjen.urlshortener.Utils.getRandomUUID;
+import static com.github.klijjen.urlshortener.Utils.getTimeOrderedUUID;
+import static com.github.klijjen.urlshortener.Utils.hashUrl;
 
 
 @Entity
-@Table(name = "urls", indexes = {@Index(name = "idx_short_code", columnList = "shortCode"),})
-public class UrlEntity {
+@Table(name = "urls", indexes = {
+        @Index(name = "idx_short_code", columnList = "shortCode"),
+        @Index(name = "idx_url_hash", columnList = "urlHash", unique = true),
+        @Index(name = "idx_expires_at", columnList = "expiresAt"),
+})
+// Проекции для чтения без загрузки сущности. Именованные запросы разбираются Hibernate один раз при старте,
+// а строка из @Query в репозитории заново обрабатывается Spring Data при каждом вызове
+@NamedQuery(name = "UrlEntity.findRecordByShortCode",
+        query = "select new com.github.klijjen.urlshortener.repository.UrlRecord("
+                + "u.shortCode, u.originalUrl, u.expiresAt, u.redirectStatus, u.analytics) "
+                + "from UrlEntity u where u.shortCode = :shortCode")
+@NamedQuery(name = "UrlEntity.findShortCodeByUrlHash",
+        query = "select u.shortCode from UrlEntity u where u.urlHash = :urlHash")
+public class UrlEntity implements Persistable<UUID> {
 
     @Id
     private final UUID id;
@@ -20,14 +35,72 @@ public class UrlEntity {
     @Column(nullable = false, unique = true)
     private String shortCode;
 
+    // SHA-256 нормализованного URL; null у строк, созданных до появления колонки
+    @Column(length = 64)
+    private String urlHash;
+
+    // null у строк, созданных до появления колонки
+    private Instant createdAt;
+
+    // null - бессрочная ссылка
+    private Instant expiresAt;
+
+    // Код ответа редиректа (301, 302, 307, 308); null - код по умолчанию app.redirect.default-status
+    private Integer redirectStatus;
+
+    // Учет переходов; null - учитываются, если ссылка отдается кодом 302 (так же и у строк, созданных до появления колонки)
+    private Boolean analytics;
+
+    // Идентификатор назначается при создании, поэтому без этого флага save() выполнял бы merge с лишним SELECT
+    @Transient
+    private boolean isNew = true;
+
     public UrlEntity() {
-        this.id = getRandomUUID();
+        this.id = getTimeOrderedUUID();
     }
 
     public UrlEntity(String originalUrl, String shortCode) {
+        this(originalUrl, shortCode, hashUrl(originalUrl));
+    }
+
+    public UrlEntity(String originalUrl, String shortCode, String urlHash) {
+        this(originalUrl, shortCode, urlHash, null);
+    }
+
+    public UrlEntity(String originalUrl, String shortCode, String urlHash, Instant expiresAt) {
+        this(originalUrl, shortCode, urlHash, expiresAt, null);
+    }
+
+    public UrlEntity(String originalUrl, String shortCode, String urlHash, Instant expiresAt, Integer redirectStatus) {
+        this(originalUrl, shortCode, urlHash, expiresAt, redirectStatus, null);
+    }
+
+    public UrlEntity(String originalUrl, String shortCode, String urlHash, Instant expiresAt, Integer redirectStatus,
+                     Boolean analytics) {
         this();
         this.originalUrl = originalUrl;
         this.shortCode = shortCode;
+        this.urlHash = urlHash;
+        this.createdAt = Instant.now();
+        this.expiresAt = expiresAt;
+        this.redirectStatus = redirectStatus;
+        this.analytics = analytics;
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
     }
 
     public String getOriginalUrl() {
@@ -37,4 +110,32 @@ public class UrlEntity {
     public String getShortCode() {
         return shortCode;
     }
-}
\ No newline at end of file
+
+    public String getUrlHash() {
+        return urlHash;
+    }
+
+    public void setUrlHash(String urlHash) {
+        this.urlHash = urlHash;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Integer getRedirectStatus() {
+        return redirectStatus;
+    }
+
+    public Boolean getAnalytics() {
+        return analytics;
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.klijjen.urlshortener.repository;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UrlRecord(String shortCode, String originalUrl, Instant expiresAt, Integer redirectStatus,
+                        Boolean analytics) {
+
+    public UrlRecord(String shortCode, String originalUrl) {
+        this(shortCode, originalUrl, null, null, null);
+    }
+
+    public UrlRecord(String shortCode, String originalUrl, Instant expiresAt) {
+        this(shortCode, originalUrl, expiresAt, null, null);
+    }
+}
@@ -1,16 +1,87 @@
 package com.github.klijjen.urlshortener.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UrlRepository extends JpaRepository<UrlEntity, UUID> {
     Optional<UrlEntity> findByShortCode(String shortCode);
 
-    Optional<UrlEntity> findByOriginalUrl(String originalUrl);
+    // Поиск для редиректа: только нужные колонки, без сущности и ее снимка в контексте персистентности
+    // (именованный запрос UrlEntity.findRecordByShortCode). Read-only без начала транзакции в базе:
+    // этого признака достаточно для выбора реплики, а begin/commit на каждый промах кэша стоили бы дороже проекции
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    Optional<UrlRecord> findRecordByShortCode(@Param("shortCode") String shortCode);
+
+    // То же с основной базы: запись, только что созданную здесь или другим экземпляром, реплика может еще не получить
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(name = "UrlEntity.findRecordByShortCode")
+    Optional<UrlRecord> findRecordByShortCodeOnPrimary(@Param("shortCode") String shortCode);
+
+    Optional<UrlEntity> findByUrlHash(String urlHash);
+
+    // Дедупликация при сокращении: нужен только код уже сохраненной ссылки
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    Optional<String> findShortCodeByUrlHash(@Param("urlHash") String urlHash);
+
+    List<UrlEntity> findByUrlHashIn(Collection<String> urlHashes);
 
     boolean existsByShortCode(String shortCode);
+
+    Slice<UrlEntity> findByUrlHashIsNullAndCreatedAtIsNullAndShortCodeGreaterThanOrderByShortCode(String shortCode, Pageable pageable);
+
+    @Query("select u from UrlEntity u where u.id > :after order by u.id")
+    List<UrlEntity> findAfterId(@Param("after") UUID after, Pageable pageable);
+
+    @Modifying
+    @Query("update UrlEntity u set u.id = :newId where u.id = :oldId")
+    int updateId(@Param("oldId") UUID oldId, @Param("newId") UUID newId);
+
+    @Query("select new com.github.klijjen.urlshortener.repository.UrlRecord("
+            + "u.shortCode, u.originalUrl, u.expiresAt, u.redirectStatus, u.analytics) "
+            + "from UrlEntity u where u.shortCode > :after order by u.shortCode")
+    List<UrlRecord> findRecordsAfter(@Param("after") String after, Pageable pageable);
+
+    // Прогрев кэша без снимка: самые посещаемые живые ссылки, строки читаются потоком внутри транзакции
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.github.klijjen.urlshortener.repository.UrlRecord("
+            + "u.shortCode, u.originalUrl, u.expiresAt, u.redirectStatus, u.analytics) "
+            + "from ClickStatsEntity s join UrlEntity u on u.shortCode = s.shortCode "
+            + "where u.expiresAt is null or u.expiresAt > :now order by s.clicks desc")
+    Stream<UrlRecord> streamMostClicked(@Param("now") Instant now, Limit limit);
+
+    @Query("select u.shortCode from UrlEntity u where u.shortCode > :after order by u.shortCode")
+    List<String> findShortCodesAfter(@Param("after") String after, Pageable pageable);
+
+    @Query("select u.shortCode from UrlEntity u where u.shortCode in :shortCodes")
+    List<String> findExistingShortCodes(@Param("shortCodes") Collection<String> shortCodes);
+
+    @Query("select u.urlHash from UrlEntity u where u.urlHash in :hashes")
+    List<String> findExistingUrlHashes(@Param("hashes") Collection<String> hashes);
+
+    @Query("select u.shortCode from UrlEntity u where u.expiresAt < :now order by u.expiresAt")
+    List<String> findExpiredShortCodes(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("delete from UrlEntity u where u.shortCode in :shortCodes")
+    int deleteByShortCodes(@Param("shortCodes") Collection<String> shortCodes);
 }
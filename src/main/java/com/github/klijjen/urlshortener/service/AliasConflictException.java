@@ -0,0 +1,25 @@
+package com.github.klijjen.urlshortener.service;
+
+import java.util.List;
+
+/**
+ * Псевдоним уже занят другой ссылкой. Содержит свободные варианты рядом с запрошенным.
+ */
+public class AliasConflictException extends RuntimeException {
+    private final String alias;
+    private final List<String> suggestions;
+
+    public AliasConflictException(String alias, List<String> suggestions) {
+        super("Псевдоним уже занят: " + alias);
+        this.alias = alias;
+        this.suggestions = suggestions;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    public List<String> getSuggestions() {
+        return suggestions;
+    }
+}
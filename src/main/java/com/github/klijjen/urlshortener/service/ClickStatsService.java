@@ -0,0 +1,117 @@
+package com.github.klijjen.urlshortener.service;
+
+import com.github.klijjen.urlshortener.repository.ClickStatsEntity;
+import com.github.klijjen.urlshortener.repository.ClickStatsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики переходов по коротким ссылкам.
+ * Переход только увеличивает LongAdder в памяти; накопленные значения периодически
+ * переносятся в таблицу url_stats одним пакетным MERGE в фоновом потоке. Переходы по кодам, которых уже нет
+ * в urls (ссылка удалена после истечения), не сохраняются: иначе после очистки оставались бы строки статистики без ссылок.
+ * Без SQL-базы счетчики некуда сбросить, поэтому в профиле edge статистика выключена (app.analytics.enabled=false).
+ */
+@Service
+public class ClickStatsService {
+    private final static Logger logger = LoggerFactory.getLogger(ClickStatsService.class);
+    private static final String MERGE_SQL = """
+            MERGE INTO url_stats s
+            USING (SELECT v.short_code, v.clicks
+                   FROM (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS BIGINT))) AS v(short_code, clicks)
+                   WHERE EXISTS (SELECT 1 FROM urls u WHERE u.short_code = v.short_code)) AS v
+            ON s.short_code = v.short_code
+            WHEN MATCHED THEN UPDATE SET clicks = s.clicks + v.clicks
+            WHEN NOT MATCHED THEN INSERT (short_code, clicks) VALUES (v.short_code, v.clicks)
+            """;
+
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ClickStatsRepository clickStatsRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.analytics.enabled:true}")
+    private boolean enabled = true;
+
+    @Autowired
+    public ClickStatsService(ObjectProvider<ClickStatsRepository> clickStatsRepository, ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        this.clickStatsRepository = clickStatsRepository.getIfAvailable();
+        this.jdbcTemplate = jdbcTemplate.getIfAvailable();
+    }
+
+    public void recordClick(String shortCode) {
+        if (!enabled) {
+            return;
+        }
+        LongAdder counter = pending.get(shortCode);
+        if (counter == null) {
+            counter = pending.computeIfAbsent(shortCode, code -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public long getClicks(String shortCode) {
+        long persisted = clickStatsRepository == null ? 0
+                : clickStatsRepository.findById(shortCode).map(ClickStatsEntity::getClicks).orElse(0L);
+        LongAdder counter = pending.get(shortCode);
+        return persisted + (counter != null ? counter.sum() : 0);
+    }
+
+    /**
+     * Отбрасывает несохраненные переходы по удаленным ссылкам: код может быть выдан заново,
+     * и старые переходы не должны достаться новой ссылке.
+     */
+    public void discard(Collection<String> shortCodes) {
+        shortCodes.forEach(pending::remove);
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.flush-interval-ms:10000}")
+    public void flush() {
+        if (jdbcTemplate == null) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> entry : pending.entrySet()) {
+            long clicks = entry.getValue().sumThenReset();
+            if (clicks > 0) {
+                batch.add(new Object[]{entry.getKey(), clicks});
+            } else {
+                // Неактивный счетчик удаляется; клик, пришедший в этот момент, может потеряться - это допустимо для статистики
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(MERGE_SQL, batch);
+            logger.debug("Сохранена статистика переходов для {} коротких кодов", batch.size());
+        } catch (DataAccessException e) {
+            // Клики возвращаются в буфер и будут записаны при следующем сбросе
+            logger.warn("Не удалось сохранить статистику переходов: {}", e.getMessage());
+            for (Object[] row : batch) {
+                pending.computeIfAbsent((String) row[0], code -> new LongAdder()).add((Long) row[1]);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
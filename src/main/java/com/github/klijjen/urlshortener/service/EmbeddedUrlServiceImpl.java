@@ -0,0 +1,179 @@
+package com.github.klijjen.urlshortener.service;
+
+import com.github.klijjen.urlshortener.cache.CachedUrl;
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import com.github.klijjen.urlshortener.repository.MappedUrlRepository;
+import com.github.klijjen.urlshortener.repository.UrlRecord;
+import com.github.klijjen.urlshortener.service.generator.CollisionCounter;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeGenerator;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeSpaceExhaustedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Вариант {@link UrlServiceImpl} поверх встроенного хранилища {@link MappedUrlRepository} (профиль edge).
+ * Кэш и фильтр коротких кодов не используются: поиск в индексе вне кучи сам по себе дешевле промаха кэша
+ * и не держит URL в куче. Пакет сохраняется по одному: запись в журнал - запись в память, без сетевых обращений.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "embedded")
+public class EmbeddedUrlServiceImpl implements UrlService {
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedUrlServiceImpl.class);
+    private final MappedUrlRepository urlRepository;
+    private final UrlShortenerConfig config;
+    private final ShortCodeGenerator shortCodeGenerator;
+    private final ShortenValidator validator;
+    private final CollisionCounter collisions;
+
+    private final Timer shortenTimer;
+    private final Timer shortenBatchTimer;
+    private final Timer lookupTimer;
+
+    @Value("${app.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    @Autowired
+    public EmbeddedUrlServiceImpl(MappedUrlRepository urlRepository, UrlShortenerConfig config,
+                                  ShortCodeGenerator shortCodeGenerator, ShortenValidator validator,
+                                  MeterRegistry meterRegistry) {
+        this.urlRepository = urlRepository;
+        this.config = config;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.validator = validator;
+        this.collisions = new CollisionCounter(meterRegistry, "insert");
+
+        this.shortenTimer = timer("url.shorten", "Сокращение одного URL").register(meterRegistry);
+        this.shortenBatchTimer = timer("url.shorten.batch", "Пакетное сокращение URL").register(meterRegistry);
+        this.lookupTimer = timer("url.lookup", "Поиск оригинального URL по короткому коду").register(meterRegistry);
+
+        logger.info("Сервис сокращения URL сконфигурирован со встроенным хранилищем: {} ссылок", urlRepository.count());
+    }
+
+    @Override
+    public String shortenUrl(String originalUrl) {
+        return shortenUrl(originalUrl, config.getDefaultLength());
+    }
+
+    @Override
+    public String shortenUrl(String originalUrl, int desiredLength) {
+        return shortenTimer.record(() -> doShortenUrl(originalUrl, desiredLength, null, null, null));
+    }
+
+    @Override
+    public String shortenUrlWithAlias(String originalUrl, String alias) {
+        return shortenTimer.record(() -> doShortenUrlWithAlias(originalUrl, alias, null, null, null));
+    }
+
+    @Override
+    public String shorten(ShortenCommand command) {
+        if (command.alias() != null) {
+            return shortenTimer.record(() -> doShortenUrlWithAlias(command.url(), command.alias(), command.expiresAt(),
+                    command.redirectStatus(), command.analytics()));
+        }
+        int length = command.length() != null ? command.length() : config.getDefaultLength();
+        return shortenTimer.record(() -> doShortenUrl(command.url(), length, command.expiresAt(), command.redirectStatus(),
+                command.analytics()));
+    }
+
+    private String doShortenUrl(String url, int desiredLength, Instant expiresAt, Integer redirectStatus,
+                                Boolean analytics) {
+        String originalUrl = validator.canonicalizeUrl(url);
+        validator.validateLength(desiredLength);
+        validator.validateExpiresAt(expiresAt);
+        validator.validateRedirectStatus(redirectStatus, analytics);
+
+        // Как и в основном варианте, ссылки со сроком действия и с кодом редиректа не дедуплицируются
+        boolean deduplicated = expiresAt == null && redirectStatus == null && analytics == null;
+        if (deduplicated) {
+            Optional<String> existingCode = urlRepository.findShortCodeByUrl(originalUrl);
+            if (existingCode.isPresent()) {
+                return buildShortUrl(existingCode.get());
+            }
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            String shortCode = shortCodeGenerator.generate(desiredLength);
+            String saved = deduplicated
+                    ? urlRepository.insertDeduplicated(shortCode, originalUrl)
+                    : urlRepository.insert(shortCode, originalUrl, expiresAt, redirectStatus, analytics)
+                    ? shortCode : null;
+            if (saved != null) {
+                logger.debug("URL успешно сокращен: {} -> {}", originalUrl, saved);
+                return buildShortUrl(saved);
+            }
+            // Код заняли между проверкой в генераторе и вставкой
+            if (attempt >= config.getMaxAttempts()) {
+                throw new ShortCodeSpaceExhaustedException("Не удалось сохранить уникальный короткий код после " + attempt + " попыток");
+            }
+            collisions.increment(attempt);
+        }
+    }
+
+    private String doShortenUrlWithAlias(String url, String alias, Instant expiresAt, Integer redirectStatus,
+                                         Boolean analytics) {
+        String originalUrl = validator.canonicalizeUrl(url);
+        validator.validateAlias(alias);
+        validator.validateExpiresAt(expiresAt);
+        validator.validateRedirectStatus(redirectStatus, analytics);
+
+        if (!urlRepository.insert(alias, originalUrl, expiresAt, redirectStatus, analytics)) {
+            Optional<UrlRecord> existing = urlRepository.findRecord(alias, Instant.now());
+            if (existing.isPresent() && existing.get().originalUrl().equals(originalUrl)
+                    && Objects.equals(existing.get().redirectStatus(), redirectStatus)
+                    && Objects.equals(existing.get().analytics(), analytics)) {
+                // Повтор того же запроса
+                return buildShortUrl(alias);
+            }
+            List<String> suggestions = validator.aliasCandidates(alias).stream()
+                    .filter(candidate -> !urlRepository.existsByShortCode(candidate))
+                    .limit(ShortenValidator.ALIAS_SUGGESTIONS)
+                    .toList();
+            throw new AliasConflictException(alias, suggestions);
+        }
+        return buildShortUrl(alias);
+    }
+
+    @Override
+    public List<ShortenResult> shortenUrls(List<ShortenCommand> commands) {
+        return shortenBatchTimer.record(() -> {
+            List<ShortenResult> results = new ArrayList<>(commands.size());
+            for (ShortenCommand command : commands) {
+                try {
+                    results.add(ShortenResult.success(command.url(), shorten(command)));
+                } catch (AliasConflictException e) {
+                    results.add(ShortenResult.failure(command.url(), e.getMessage() + ", свободные варианты: " + e.getSuggestions()));
+                } catch (RuntimeException e) {
+                    results.add(ShortenResult.failure(command.url(), e.getMessage()));
+                }
+            }
+            return results;
+        });
+    }
+
+    @Override
+    public Optional<CachedUrl> getRedirect(String shortCode) {
+        return lookupTimer.record(() -> urlRepository.findRecord(shortCode, Instant.now())
+                .map(record -> new CachedUrl(record.originalUrl(), record.expiresAt(), record.redirectStatus(),
+                        record.analytics())));
+    }
+
+    private String buildShortUrl(String shortCode) {
+        return baseUrl + "/" + shortCode;
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name).description(description).publishPercentileHistogram();
+    }
+}
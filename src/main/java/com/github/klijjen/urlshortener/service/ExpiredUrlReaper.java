@@ -0,0 +1,87 @@
+package com.github.klijjen.urlshortener.service;
+
+import com.github.klijjen.urlshortener.repository.ClickStatsRepository;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Удаляет ссылки с истекшим сроком действия вместе с их статистикой переходов.
+ * Коды читаются пачками по индексу idx_expires_at от самых старых, каждая пачка удаляется
+ * в отдельной короткой транзакции: блокировки держатся недолго и не задерживают редиректы.
+ * До удаления истекшие ссылки уже не отдаются: срок проверяется при поиске. Несохраненные переходы по удаленным
+ * кодам отбрасываются из буфера {@link ClickStatsService}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "jpa", matchIfMissing = true)
+public class ExpiredUrlReaper {
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredUrlReaper.class);
+    private final UrlRepository urlRepository;
+    private final ClickStatsRepository clickStatsRepository;
+    private final ClickStatsService clickStatsService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.expiry.purge.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.expiry.purge.batch-size:500}")
+    private int batchSize = 500;
+
+    @Autowired
+    public ExpiredUrlReaper(UrlRepository urlRepository, ClickStatsRepository clickStatsRepository,
+                            ClickStatsService clickStatsService, TransactionTemplate transactionTemplate) {
+        this.urlRepository = urlRepository;
+        this.clickStatsRepository = clickStatsRepository;
+        this.clickStatsService = clickStatsService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${app.expiry.purge.interval-ms:60000}",
+            initialDelayString = "${app.expiry.purge.interval-ms:60000}")
+    public void purgeScheduled() {
+        if (enabled) {
+            purge();
+        }
+    }
+
+    public long purge() {
+        Instant now = Instant.now();
+        long deleted = 0;
+
+        while (true) {
+            List<String> batchDeleted = transactionTemplate.execute(status -> {
+                List<String> shortCodes = urlRepository.findExpiredShortCodes(now, PageRequest.ofSize(batchSize));
+                if (!shortCodes.isEmpty()) {
+                    urlRepository.deleteByShortCodes(shortCodes);
+                    clickStatsRepository.deleteAllByIdInBatch(shortCodes);
+                }
+                return shortCodes;
+            });
+            int count = batchDeleted != null ? batchDeleted.size() : 0;
+            if (count > 0) {
+                clickStatsService.discard(batchDeleted);
+            }
+            deleted += count;
+
+            // Удаленные строки выпадают из выборки, поэтому следующая пачка снова берется с начала диапазона
+            if (count < batchSize) {
+                break;
+            }
+        }
+
+        if (deleted > 0) {
+            logger.info("Удалено {} ссылок с истекшим сроком действия", deleted);
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.klijjen.urlshortener.service;
+
+import com.github.klijjen.urlshortener.cache.CachedUrl;
+import reactor.core.publisher.Mono;
+
+/**
+ * Реактивный вариант {@link UrlService} для профиля reactive.
+ */
+public interface ReactiveUrlService {
+
+    /**
+     * Псевдоним, длина и срок действия берутся из команды.
+     * Ошибки проверки завершают Mono с IllegalArgumentException, занятый псевдоним - с AliasConflictException.
+     */
+    Mono<String> shorten(ShortenCommand command);
+
+    /**
+     * Ссылка для редиректа: оригинальный URL, срок действия и код редиректа.
+     * Пустой Mono, если код не найден или ссылка истекла.
+     */
+    Mono<CachedUrl> getRedirect(String shortCode);
+
+    default Mono<String> getOriginalUrl(String shortCode) {
+        return getRedirect(shortCode).map(CachedUrl::originalUrl);
+    }
+}
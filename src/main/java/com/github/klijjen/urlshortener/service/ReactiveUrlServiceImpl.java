@@ -0,0 +1,224 @@
+package com.github.klijjen.urlshortener.service;
+
+import com.github.klijjen.urlshortener.cache.CachedUrl;
+import com.github.klijjen.urlshortener.cache.ShortCodeFilter;
+import com.github.klijjen.urlshortener.cache.UrlCache;
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import com.github.klijjen.urlshortener.repository.ReactiveUrlRepository;
+import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.service.generator.CollisionCounter;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.github.klijjen.urlshortener.Utils.hashUrl;
+
+/**
+ * Та же логика, что в {@link UrlServiceImpl}: проверки из {@link ShortenValidator}, общий генератор кодов,
+ * кэш и фильтр коротких кодов. Обращения к таблице urls идут через R2DBC и не занимают поток.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUrlServiceImpl implements ReactiveUrlService {
+    private final static Logger logger = LoggerFactory.getLogger(ReactiveUrlServiceImpl.class);
+    private final ReactiveUrlRepository urlRepository;
+    private final UrlShortenerConfig config;
+    private final UrlCache urlCache;
+    private final ShortCodeFilter shortCodeFilter;
+    private final ShortCodeGenerator shortCodeGenerator;
+    private final ShortenValidator validator;
+    private final MeterRegistry meterRegistry;
+    private final CollisionCounter collisions;
+
+    private final Timer shortenTimer;
+    private final Timer lookupTimer;
+    private final Timer generateTimer;
+
+    @Value("${app.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    @Autowired
+    public ReactiveUrlServiceImpl(ReactiveUrlRepository urlRepository, UrlShortenerConfig config, UrlCache urlCache,
+                                  ShortCodeFilter shortCodeFilter, ShortCodeGenerator shortCodeGenerator,
+                                  ShortenValidator validator, MeterRegistry meterRegistry) {
+        this.urlRepository = urlRepository;
+        this.config = config;
+        this.urlCache = urlCache;
+        this.shortCodeFilter = shortCodeFilter;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.validator = validator;
+        this.meterRegistry = meterRegistry;
+        this.collisions = new CollisionCounter(meterRegistry, "insert");
+
+        this.shortenTimer = timer("url.shorten", "Сокращение одного URL").register(meterRegistry);
+        this.lookupTimer = timer("url.lookup", "Поиск оригинального URL по короткому коду").register(meterRegistry);
+        this.generateTimer = timer("shortcode.generate", "Генерация уникального короткого кода")
+                .tag("mode", "single").register(meterRegistry);
+
+        logger.info("Реактивный сервис сокращения URL сконфигурирован.");
+    }
+
+    @Override
+    public Mono<String> shorten(ShortenCommand command) {
+        return timed(shortenTimer, Mono.defer(() -> {
+            if (command.alias() != null) {
+                return doShortenUrlWithAlias(command.url(), command.alias(), command.expiresAt(), command.redirectStatus(),
+                        command.analytics());
+            }
+            int length = command.length() != null ? command.length() : config.getDefaultLength();
+            return doShortenUrl(command.url(), length, command.expiresAt(), command.redirectStatus(), command.analytics());
+        }));
+    }
+
+    private Mono<String> doShortenUrl(String url, int desiredLength, Instant expiresAt, Integer redirectStatus,
+                                      Boolean analytics) {
+        logger.debug("Сокращение URL: {} с желаемой длиной: {}", url, desiredLength);
+
+        String originalUrl = validator.canonicalizeUrl(url);
+        validator.validateLength(desiredLength);
+        validator.validateExpiresAt(expiresAt);
+        validator.validateRedirectStatus(redirectStatus, analytics);
+
+        // Ссылки со сроком действия, кодом редиректа или признаком учета переходов не дедуплицируются,
+        // как и в блокирующем сервисе
+        String urlHash = expiresAt == null && redirectStatus == null && analytics == null ? hashUrl(originalUrl) : null;
+        Mono<String> existing = urlHash != null ? urlRepository.findShortCodeByUrlHash(urlHash) : Mono.empty();
+        return existing
+                .doOnNext(shortCode -> logger.debug("URL уже был сокращен ранее: {}", originalUrl))
+                .switchIfEmpty(Mono.defer(() -> insertWithRetry(originalUrl, desiredLength, urlHash, expiresAt, redirectStatus,
+                        analytics, 1)))
+                .map(this::buildShortUrl);
+    }
+
+    private Mono<String> insertWithRetry(String originalUrl, int desiredLength, String urlHash, Instant expiresAt,
+                                         Integer redirectStatus, Boolean analytics, int attempt) {
+        return generateShortCode(desiredLength).flatMap(shortCode -> urlRepository
+                .insert(new UrlEntity(originalUrl, shortCode, urlHash, expiresAt, redirectStatus, analytics))
+                .then(Mono.fromSupplier(() -> {
+                    shortCodeFilter.add(shortCode);
+                    urlCache.put(shortCode, new CachedUrl(originalUrl, expiresAt, redirectStatus, analytics));
+                    logger.debug("URL успешно сокращен: {} -> {}", originalUrl, shortCode);
+                    return shortCode;
+                }))
+                .onErrorResume(DataIntegrityViolationException.class, e -> {
+                    // Тот же URL мог быть сокращен параллельным запросом между поиском и вставкой
+                    Mono<String> concurrent = urlHash != null ? urlRepository.findShortCodeByUrlHash(urlHash) : Mono.empty();
+                    return concurrent.switchIfEmpty(Mono.defer(() -> {
+                        shortCodeFilter.add(shortCode);
+                        if (attempt >= config.getMaxAttempts()) {
+                            return Mono.error(e);
+                        }
+                        collisions.increment(attempt);
+                        logger.debug("Короткий код {} уже занят, попытка {}/{}", shortCode, attempt, config.getMaxAttempts());
+                        return insertWithRetry(originalUrl, desiredLength, urlHash, expiresAt, redirectStatus, analytics,
+                                attempt + 1);
+                    }));
+                }));
+    }
+
+    /**
+     * Генераторы обращаются к базе через JPA: случайный - когда фильтр не исключает код,
+     * блочный - раз в блок кодов. Поэтому генерация выполняется в пуле для блокирующих задач.
+     */
+    private Mono<String> generateShortCode(int desiredLength) {
+        return Mono.fromCallable(() -> generateTimer.record(() -> shortCodeGenerator.generate(desiredLength)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<String> doShortenUrlWithAlias(String url, String alias, Instant expiresAt, Integer redirectStatus,
+                                               Boolean analytics) {
+        logger.debug("Сокращение URL: {} с псевдонимом: {}", url, alias);
+
+        String originalUrl = validator.canonicalizeUrl(url);
+        validator.validateAlias(alias);
+        validator.validateExpiresAt(expiresAt);
+        validator.validateRedirectStatus(redirectStatus, analytics);
+
+        return urlRepository.insert(new UrlEntity(originalUrl, alias, null, expiresAt, redirectStatus, analytics))
+                .then(Mono.fromSupplier(() -> {
+                    shortCodeFilter.add(alias);
+                    urlCache.put(alias, new CachedUrl(originalUrl, expiresAt, redirectStatus, analytics));
+                    logger.debug("URL успешно сохранен под псевдонимом: {} -> {}", originalUrl, alias);
+                    return buildShortUrl(alias);
+                }))
+                .onErrorResume(DataIntegrityViolationException.class, e -> {
+                    shortCodeFilter.add(alias);
+                    return urlRepository.findByShortCode(alias)
+                            // Повтор того же запроса
+                            .filter(existing -> existing.originalUrl().equals(originalUrl)
+                                    && Objects.equals(existing.redirectStatus(), redirectStatus)
+                                    && Objects.equals(existing.analytics(), analytics))
+                            .map(existing -> buildShortUrl(alias))
+                            .switchIfEmpty(Mono.defer(() -> suggestAliases(alias)
+                                    .flatMap(suggestions -> Mono.<String>error(new AliasConflictException(alias, suggestions)))));
+                });
+    }
+
+    private Mono<List<String>> suggestAliases(String alias) {
+        List<String> candidates = validator.aliasCandidates(alias);
+        List<String> uncertain = candidates.stream().filter(shortCodeFilter::mightContain).toList();
+        Mono<Set<String>> taken = uncertain.isEmpty()
+                ? Mono.just(Set.of())
+                : urlRepository.findExistingShortCodes(uncertain).collect(Collectors.toSet());
+        return taken.map(codes -> candidates.stream()
+                .filter(candidate -> !codes.contains(candidate))
+                .limit(ShortenValidator.ALIAS_SUGGESTIONS)
+                .toList());
+    }
+
+    @Override
+    public Mono<CachedUrl> getRedirect(String shortCode) {
+        return timed(lookupTimer, Mono.defer(() -> doGetRedirect(shortCode)));
+    }
+
+    private Mono<CachedUrl> doGetRedirect(String shortCode) {
+        logger.debug("Поиск оригинального URL для короткого кода: {}", shortCode);
+
+        if (!shortCodeFilter.mightContain(shortCode)) {
+            return Mono.empty();
+        }
+
+        CachedUrl cached = urlCache.getIfPresent(shortCode);
+        if (cached != null) {
+            return cached.originalUrl() != null ? Mono.just(cached) : Mono.empty();
+        }
+
+        // Истекшие, но еще не удаленные фоновой очисткой ссылки считаются отсутствующими
+        return urlRepository.findByShortCode(shortCode)
+                .filter(record -> record.expiresAt() == null || record.expiresAt().isAfter(Instant.now()))
+                .map(record -> new CachedUrl(record.originalUrl(), record.expiresAt(), record.redirectStatus(),
+                        record.analytics()))
+                .doOnNext(value -> urlCache.put(shortCode, value))
+                .switchIfEmpty(Mono.fromRunnable(() -> urlCache.put(shortCode, (CachedUrl) null)));
+    }
+
+    private String buildShortUrl(String shortCode) {
+        return baseUrl + "/" + shortCode;
+    }
+
+    private <T> Mono<T> timed(Timer timer, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono.doFinally(signal -> sample.stop(timer));
+        });
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name).description(description).publishPercentileHistogram();
+    }
+}
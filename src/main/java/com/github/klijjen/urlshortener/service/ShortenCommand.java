@@ -0,0 +1,23 @@
+package com.github.klijjen.urlshortener.service;
+
+import java.time.Instant;
+
+/**
+ * Параметры сокращения; redirectStatus == null - код редиректа по умолчанию,
+ * analytics == null - переходы учитываются, если ссылка отдается кодом 302.
+ */
+public record ShortenCommand(String url, Integer length, String alias, Instant expiresAt, Integer redirectStatus,
+                             Boolean analytics) {
+
+    public ShortenCommand(String url, Integer length) {
+        this(url, length, null, null, null, null);
+    }
+
+    public ShortenCommand(String url, Integer length, String alias) {
+        this(url, length, alias, null, null, null);
+    }
+
+    public ShortenCommand(String url, Integer length, String alias, Instant expiresAt) {
+        this(url, length, alias, expiresAt, null, null);
+    }
+}
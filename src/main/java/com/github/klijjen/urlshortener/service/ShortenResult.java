@@ -0,0 +1,16 @@
+package com.github.klijjen.urlshortener.service;
+
+public record ShortenResult(String originalUrl, String shortUrl, String error) {
+
+    public static ShortenResult success(String originalUrl, String shortUrl) {
+        return new ShortenResult(originalUrl, shortUrl, null);
+    }
+
+    public static ShortenResult failure(String originalUrl, String error) {
+        return new ShortenResult(originalUrl, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
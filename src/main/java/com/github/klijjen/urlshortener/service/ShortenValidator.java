@@ -0,0 +1,188 @@
+package com.github.klijjen.urlshortener.service;
+
+import com.github.klijjen.urlshortener.UrlCanonicalizer;
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Проверки входных данных сокращения, общие для блокирующего и реактивного сервисов.
+ * Нарушение - IllegalArgumentException с сообщением для клиента и счетчик url.validation.failures.
+ */
+@Component
+public class ShortenValidator {
+    private static final Logger logger = LoggerFactory.getLogger(ShortenValidator.class);
+    static final int MAX_URL_LENGTH = 2048;
+    static final int ALIAS_SUGGESTIONS = 3;
+
+    private final UrlShortenerConfig config;
+    private final MeterRegistry meterRegistry;
+    private final String[] reservedAliases;
+
+    @Autowired
+    public ShortenValidator(UrlShortenerConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        // Отсортированный массив в нижнем регистре: проверка псевдонима - двоичный поиск без лишних объектов
+        this.reservedAliases = config.getReservedAliases().stream()
+                .map(word -> word.toLowerCase(Locale.ROOT))
+                .sorted()
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Проверяет URL и возвращает его канонический вид ({@link UrlCanonicalizer}): по нему считается хэш
+     * для дедупликации, и он же сохраняется.
+     */
+    public String canonicalizeUrl(String url) {
+        if (url == null || url.trim().isEmpty()) {
+            countValidationFailure("empty");
+            throw new IllegalArgumentException("URL не может быть пустым или null");
+        }
+
+        if (url.length() > MAX_URL_LENGTH) {
+            countValidationFailure("too_long");
+            throw new IllegalArgumentException("Длина URL превышает максимальный лимит в 2048 символов");
+        }
+
+        String canonicalUrl = UrlCanonicalizer.canonicalize(url);
+        if (canonicalUrl == null) {
+            countValidationFailure("format");
+            throw new IllegalArgumentException("Неверный формат URL: " + url);
+        }
+
+        logger.debug("URL прошел валидацию: {}", canonicalUrl);
+        return canonicalUrl;
+    }
+
+    public void validateLength(int length) {
+        if (length < config.getMinLength()) {
+            countValidationFailure("length");
+            throw new IllegalArgumentException("Длина короткого URL должна быть не менее " + config.getMinLength() + " символов");
+        }
+
+        if (length > config.getMaxLength()) {
+            countValidationFailure("length");
+            throw new IllegalArgumentException("Длина короткого URL не может превышать " + config.getMaxLength() + " символов");
+        }
+
+        logger.debug("Длина короткого URL проверена: {} символов", length);
+    }
+
+    public void validateExpiresAt(Instant expiresAt) {
+        if (expiresAt != null && !expiresAt.isAfter(Instant.now())) {
+            countValidationFailure("expires_at");
+            throw new IllegalArgumentException("Срок действия ссылки должен быть в будущем");
+        }
+    }
+
+    public void validateRedirectStatus(Integer redirectStatus, Boolean analytics) {
+        if (redirectStatus != null && !isRedirectStatus(redirectStatus)) {
+            countValidationFailure("redirect_status");
+            throw new IllegalArgumentException("Код редиректа должен быть одним из: 301, 302, 307, 308");
+        }
+        if (!isAnalyticsCompatible(redirectStatus, analytics)) {
+            countValidationFailure("redirect_status");
+            throw new IllegalArgumentException("Код редиректа " + redirectStatus
+                    + " кэшируется клиентами, а переходы по ссылке учитываются в статистике: допустим только 302");
+        }
+    }
+
+    public static boolean isRedirectStatus(int status) {
+        return status == 301 || status == 302 || status == 307 || status == 308;
+    }
+
+    /**
+     * Учет переходов требует некэшируемого 302: редирект из кэша клиента или CDN до сервера не доходит.
+     */
+    public static boolean isAnalyticsCompatible(Integer redirectStatus, Boolean analytics) {
+        return !Boolean.TRUE.equals(analytics) || redirectStatus == null || redirectStatus == 302;
+    }
+
+    public void validateAlias(String alias) {
+        if (alias == null || alias.length() < config.getAliasMinLength() || alias.length() > config.getAliasMaxLength()) {
+            countValidationFailure("alias");
+            throw new IllegalArgumentException("Псевдоним должен содержать от " + config.getAliasMinLength()
+                    + " до " + config.getAliasMaxLength() + " символов");
+        }
+
+        for (int i = 0; i < alias.length(); i++) {
+            char c = alias.charAt(i);
+            boolean allowed = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '_';
+            if (!allowed) {
+                countValidationFailure("alias");
+                throw new IllegalArgumentException("Псевдоним может содержать только латинские буквы, цифры, '-' и '_'");
+            }
+        }
+
+        if (isReservedAlias(alias)) {
+            countValidationFailure("alias");
+            throw new IllegalArgumentException("Псевдоним зарезервирован: " + alias);
+        }
+
+        if (isGeneratable(alias)) {
+            countValidationFailure("alias");
+            throw new IllegalArgumentException("Псевдоним длиной от " + config.getMinLength() + " до " + config.getMaxLength()
+                    + " символов должен содержать '-' или '_', чтобы не совпасть с генерируемыми кодами");
+        }
+    }
+
+    /**
+     * Код, который может выдать генератор: длина из допустимых для генерации и только символы алфавита генератора.
+     * Такие псевдонимы запрещены, иначе псевдоним мог бы занять еще не выданный код (генератор block выдает коды
+     * по порядку), и сокращения тратили бы попытки на коллизии.
+     */
+    private boolean isGeneratable(String code) {
+        if (code.length() < config.getMinLength() || code.length() > config.getMaxLength()) {
+            return false;
+        }
+        String alphabet = config.getAlphabet();
+        for (int i = 0; i < code.length(); i++) {
+            if (alphabet.indexOf(code.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isReservedAlias(String alias) {
+        return Arrays.binarySearch(reservedAliases, alias.toLowerCase(Locale.ROOT)) >= 0;
+    }
+
+    /**
+     * Кандидаты на замену занятого псевдонима: alias-1 ... alias-9 без зарезервированных слов.
+     * Какие из них свободны, проверяет вызывающий сервис.
+     */
+    public List<String> aliasCandidates(String alias) {
+        String base = alias.length() > config.getAliasMaxLength() - 2
+                ? alias.substring(0, config.getAliasMaxLength() - 2)
+                : alias;
+        List<String> candidates = new ArrayList<>(9);
+        for (int i = 1; i <= 9; i++) {
+            String candidate = base + "-" + i;
+            if (!isReservedAlias(candidate)) {
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
+    }
+
+    private void countValidationFailure(String reason) {
+        Counter.builder("url.validation.failures")
+                .description("Запросы, отклоненные при проверке URL или длины кода")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
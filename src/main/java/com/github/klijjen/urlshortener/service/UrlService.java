@@ -1,5 +1,8 @@
 package com.github.klijjen.urlshortener.service;
 
+import com.github.klijjen.urlshortener.cache.CachedUrl;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface UrlService {
@@ -7,5 +10,26 @@ public interface UrlService {
 
     String shortenUrl(String originalUrl, int desiredLength);
 
-    Optional<String> getOriginalUrl(String shortCode);
+    /**
+     * Сохраняет ссылку под заданным псевдонимом.
+     *
+     * @throws AliasConflictException если псевдоним занят другой ссылкой
+     */
+    String shortenUrlWithAlias(String originalUrl, String alias);
+
+    /**
+     * Общий вариант: псевдоним, длина и срок действия берутся из команды.
+     */
+    String shorten(ShortenCommand command);
+
+    List<ShortenResult> shortenUrls(List<ShortenCommand> commands);
+
+    /**
+     * Живая ссылка для редиректа: оригинальный URL, срок действия и код редиректа.
+     */
+    Optional<CachedUrl> getRedirect(String shortCode);
+
+    default Optional<String> getOriginalUrl(String shortCode) {
+        return getRedirect(shortCode).map(CachedUrl::originalUrl);
+    }
 }
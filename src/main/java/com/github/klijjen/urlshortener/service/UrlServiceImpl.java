@@ -1,33 +1,81 @@
 package com.github.klijjen.urlshortener.service;
 
+import com.github.klijjen.urlshortener.cache.CachedUrl;
+import com.github.klijjen.urlshortener.cache.ShortCodeFilter;
+import com.github.klijjen.urlshortener.cache.UrlCache;
 import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
 import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.repository.UrlRecord;
 import com.github.klijjen.urlshortener.repository.UrlRepository;
+import com.github.klijjen.urlshortener.service.generator.CollisionCounter;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeGenerator;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeSpaceExhaustedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
-import static com.github.klijjen.urlshortener.Utils.getRandomUUID;
-import static com.github.klijjen.urlshortener.Utils.isValidUrl;
+import static com.github.klijjen.urlshortener.Utils.hashUrl;
 
 @Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "jpa", matchIfMissing = true)
 public class UrlServiceImpl implements UrlService {
     private final static Logger logger = LoggerFactory.getLogger(UrlServiceImpl.class);
-    private static final int MAX_URL_LENGTH = 2048;
     private final UrlRepository urlRepository;
     private final UrlShortenerConfig config;
+    private final UrlCache urlCache;
+    private final ShortCodeFilter shortCodeFilter;
+    private final ShortCodeGenerator shortCodeGenerator;
+    private final ShortenValidator validator;
+    private final CollisionCounter collisions;
+
+    private final Timer shortenTimer;
+    private final Timer shortenBatchTimer;
+    private final Timer lookupTimer;
+    private final Timer generateTimer;
+    private final Timer generateBulkTimer;
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
 
+    @Value("${app.datasource.read-replicas.enabled:false}")
+    private boolean readReplicas;
+
     @Autowired
-    public UrlServiceImpl(UrlRepository urlRepository, UrlShortenerConfig config) {
+    public UrlServiceImpl(UrlRepository urlRepository, UrlShortenerConfig config, UrlCache urlCache,
+                          ShortCodeFilter shortCodeFilter, ShortCodeGenerator shortCodeGenerator,
+                          ShortenValidator validator, MeterRegistry meterRegistry) {
         this.urlRepository = urlRepository;
         this.config = config;
+        this.urlCache = urlCache;
+        this.shortCodeFilter = shortCodeFilter;
+        this.shortCodeGenerator = shortCodeGenerator;
+        this.validator = validator;
+        this.collisions = new CollisionCounter(meterRegistry, "insert");
+
+        this.shortenTimer = timer("url.shorten", "Сокращение одного URL").register(meterRegistry);
+        this.shortenBatchTimer = timer("url.shorten.batch", "Пакетное сокращение URL").register(meterRegistry);
+        this.lookupTimer = timer("url.lookup", "Поиск оригинального URL по короткому коду").register(meterRegistry);
+        this.generateTimer = timer("shortcode.generate", "Генерация уникального короткого кода")
+                .tag("mode", "single").register(meterRegistry);
+        this.generateBulkTimer = timer("shortcode.generate", "Генерация уникального короткого кода")
+                .tag("mode", "bulk").register(meterRegistry);
 
         logger.info("Сервис сокращения URL сконфигурирован.");
     }
@@ -39,88 +87,279 @@ public class UrlServiceImpl implements UrlService {
 
     @Override
     public String shortenUrl(String originalUrl, int desiredLength) {
-        logger.info("Сокращение URL: {} с желаемой длиной: {}", originalUrl, desiredLength);
+        return shortenTimer.record(() -> doShortenUrl(originalUrl, desiredLength, null, null, null));
+    }
+
+    @Override
+    public String shorten(ShortenCommand command) {
+        if (command.alias() != null) {
+            return shortenTimer.record(() -> doShortenUrlWithAlias(command.url(), command.alias(), command.expiresAt(),
+                    command.redirectStatus(), command.analytics()));
+        }
+        int length = command.length() != null ? command.length() : config.getDefaultLength();
+        return shortenTimer.record(() -> doShortenUrl(command.url(), length, command.expiresAt(), command.redirectStatus(),
+                command.analytics()));
+    }
 
-        validateUrl(originalUrl);
-        validateLength(desiredLength);
+    private String doShortenUrl(String url, int desiredLength, Instant expiresAt, Integer redirectStatus,
+                                Boolean analytics) {
+        logger.debug("Сокращение URL: {} с желаемой длиной: {}", url, desiredLength);
 
-        Optional<UrlEntity> existingUrl = urlRepository.findByOriginalUrl(originalUrl);
-        if (existingUrl.isPresent()) {
-            logger.info("URL уже был сокращен ранее: {}", originalUrl);
-            return buildShortUrl(existingUrl.get().getShortCode());
+        String originalUrl = validator.canonicalizeUrl(url);
+        validator.validateLength(desiredLength);
+        validator.validateExpiresAt(expiresAt);
+        validator.validateRedirectStatus(redirectStatus, analytics);
+
+        // Ссылки со сроком действия не дедуплицируются: иначе бессрочный запрос мог бы получить
+        // ссылку, которая скоро исчезнет, а запрос со сроком - ссылку, которая не истечет.
+        // Так же и ссылки с заданным кодом редиректа или признаком учета переходов: у найденной ссылки их может не быть
+        String urlHash = expiresAt == null && redirectStatus == null && analytics == null ? hashUrl(originalUrl) : null;
+        if (urlHash != null) {
+            Optional<String> existingCode = urlRepository.findShortCodeByUrlHash(urlHash);
+            if (existingCode.isPresent()) {
+                logger.debug("URL уже был сокращен ранее: {}", originalUrl);
+                return buildShortUrl(existingCode.get());
+            }
         }
 
-        String shortCode = generateUniqueShortCode(desiredLength);
-        UrlEntity urlEntity = new UrlEntity(originalUrl, shortCode);
-        urlRepository.save(urlEntity);
+        for (int attempt = 1; ; attempt++) {
+            String shortCode = generateUniqueShortCode(desiredLength);
+            UrlEntity urlEntity = new UrlEntity(originalUrl, shortCode, urlHash, expiresAt, redirectStatus, analytics);
+            try {
+                urlRepository.save(urlEntity);
+            } catch (DataIntegrityViolationException e) {
+                // Тот же URL мог быть сокращен параллельным запросом между поиском и вставкой
+                Optional<String> concurrent = urlHash != null ? urlRepository.findShortCodeByUrlHash(urlHash) : Optional.empty();
+                if (concurrent.isPresent()) {
+                    logger.debug("URL был сокращен параллельным запросом: {}", originalUrl);
+                    return buildShortUrl(concurrent.get());
+                }
+                // Иначе занят сам код, например строкой, созданной другим генератором или экземпляром
+                shortCodeFilter.add(shortCode);
+                if (attempt >= config.getMaxAttempts()) {
+                    throw e;
+                }
+                collisions.increment(attempt);
+                logger.debug("Короткий код {} уже занят, попытка {}/{}", shortCode, attempt, config.getMaxAttempts());
+                continue;
+            }
+            shortCodeFilter.add(shortCode);
+            urlCache.put(shortCode, new CachedUrl(originalUrl, expiresAt, redirectStatus, analytics));
 
-        logger.info("URL успешно сокращен: {} -> {} (длина: {} символов)", originalUrl, shortCode, shortCode.length());
-        return buildShortUrl(shortCode);
+            logger.debug("URL успешно сокращен: {} -> {} (длина: {} символов)", originalUrl, shortCode, shortCode.length());
+            return buildShortUrl(shortCode);
+        }
     }
 
     @Override
-    public Optional<String> getOriginalUrl(String shortCode) {
-        logger.info("Поиск оригинального URL для короткого кода: {}", shortCode);
+    public String shortenUrlWithAlias(String originalUrl, String alias) {
+        return shortenTimer.record(() -> doShortenUrlWithAlias(originalUrl, alias, null, null, null));
+    }
 
-        Optional<String> result = urlRepository.findByShortCode(shortCode)
-                .map(UrlEntity::getOriginalUrl);
+    private String doShortenUrlWithAlias(String url, String alias, Instant expiresAt, Integer redirectStatus,
+                                         Boolean analytics) {
+        logger.debug("Сокращение URL: {} с псевдонимом: {}", url, alias);
 
-        if (result.isPresent()) {
-            logger.info("Оригинальный URL найден для короткого кода: {}", shortCode);
-        } else {
-            logger.info("Оригинальный URL не найден для короткого кода: {}", shortCode);
+        String originalUrl = validator.canonicalizeUrl(url);
+        validator.validateAlias(alias);
+        validator.validateExpiresAt(expiresAt);
+        validator.validateRedirectStatus(redirectStatus, analytics);
+
+        // Одна вставка вместо проверки и вставки: занятость псевдонима определяет уникальный индекс.
+        // Хэш не сохраняется, чтобы псевдоним не конфликтовал с другими ссылками на тот же URL
+        // и не возвращался при обычном сокращении этого URL.
+        try {
+            urlRepository.save(new UrlEntity(originalUrl, alias, null, expiresAt, redirectStatus, analytics));
+        } catch (DataIntegrityViolationException e) {
+            shortCodeFilter.add(alias);
+            Optional<UrlRecord> existing = urlRepository.findRecordByShortCodeOnPrimary(alias);
+            if (existing.isPresent() && existing.get().originalUrl().equals(originalUrl)
+                    && Objects.equals(existing.get().redirectStatus(), redirectStatus)
+                    && Objects.equals(existing.get().analytics(), analytics)) {
+                // Повтор того же запроса
+                return buildShortUrl(alias);
+            }
+            throw new AliasConflictException(alias, suggestAliases(alias));
         }
+        shortCodeFilter.add(alias);
+        urlCache.put(alias, new CachedUrl(originalUrl, expiresAt, redirectStatus, analytics));
 
-        return result;
+        logger.debug("URL успешно сохранен под псевдонимом: {} -> {}", originalUrl, alias);
+        return buildShortUrl(alias);
     }
 
-    private String buildShortUrl(String shortCode) {
-        return baseUrl + "/" + shortCode;
+    /**
+     * Варианты вида alias-1 ... alias-9, свободные на момент проверки. Кандидаты, отсеченные
+     * фильтром коротких кодов, заведомо свободны; остальные проверяются одним запросом.
+     */
+    private List<String> suggestAliases(String alias) {
+        List<String> candidates = validator.aliasCandidates(alias);
+        List<String> uncertain = candidates.stream().filter(shortCodeFilter::mightContain).toList();
+        Set<String> taken = uncertain.isEmpty() ? Set.of() : new HashSet<>(urlRepository.findExistingShortCodes(uncertain));
+        return candidates.stream().filter(candidate -> !taken.contains(candidate)).limit(ShortenValidator.ALIAS_SUGGESTIONS).toList();
     }
 
-    String generateUniqueShortCode(int desiredLength) {
-        int attempts = 0;
+    @Override
+    public List<ShortenResult> shortenUrls(List<ShortenCommand> commands) {
+        return shortenBatchTimer.record(() -> doShortenUrls(commands));
+    }
 
-        while (attempts < config.getMaxAttempts()) {
-            String uuid = getRandomUUID().toString().replace("-", "");
-            String shortCode = uuid.substring(0, desiredLength);
+    private List<ShortenResult> doShortenUrls(List<ShortenCommand> commands) {
+        logger.debug("Пакетное сокращение {} URL", commands.size());
 
-            if (!urlRepository.existsByShortCode(shortCode)) {
-                logger.info("Уникальный короткий код успешно сгенерирован: {}", shortCode);
-                return shortCode;
+        ShortenResult[] results = new ShortenResult[commands.size()];
+        Map<String, PendingUrl> pending = new LinkedHashMap<>();
+
+        for (int i = 0; i < commands.size(); i++) {
+            ShortenCommand command = commands.get(i);
+            if (command.alias() != null || command.expiresAt() != null || command.redirectStatus() != null
+                    || command.analytics() != null) {
+                // Псевдонимы, ссылки со сроком действия, кодом редиректа или признаком учета переходов
+                // сохраняются по одному, без дедупликации
+                results[i] = shortenIndividually(command);
+                continue;
+            }
+            int length = command.length() != null ? command.length() : config.getDefaultLength();
+            String url;
+            try {
+                url = validator.canonicalizeUrl(command.url());
+                validator.validateLength(length);
+            } catch (IllegalArgumentException e) {
+                results[i] = ShortenResult.failure(command.url(), e.getMessage());
+                continue;
             }
-            attempts++;
-            logger.warn("Обнаружена коллизия короткого кода, попытка {}/{}", attempts, config.getMaxAttempts());
+            // Повторы внутри пачки сводятся к одной записи; длина берется из первого вхождения
+            pending.computeIfAbsent(hashUrl(url), hash -> new PendingUrl(url, length))
+                    .indexes.add(i);
+        }
+
+        if (!pending.isEmpty()) {
+            for (UrlEntity existing : urlRepository.findByUrlHashIn(pending.keySet())) {
+                PendingUrl url = pending.remove(existing.getUrlHash());
+                if (url != null) {
+                    complete(results, commands, url, existing.getShortCode());
+                }
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            insertBatch(results, commands, pending);
         }
-        logger.error("Не удалось сгенерировать уникальный короткий код после {} попыток", config.getMaxAttempts());
-        throw new IllegalStateException("Не удалось сгенерировать уникальный короткий код после " + config.getMaxAttempts() + " попыток");
+
+        return Arrays.asList(results);
     }
 
-    private void validateLength(int length) {
-        if (length < config.getMinLength()) {
-            throw new IllegalArgumentException("Длина короткого URL должна быть не менее " + config.getMinLength() + " символов");
+    private void insertBatch(ShortenResult[] results, List<ShortenCommand> commands, Map<String, PendingUrl> pending) {
+        Map<Integer, List<String>> hashesByLength = new LinkedHashMap<>();
+        pending.forEach((hash, url) -> hashesByLength.computeIfAbsent(url.length, length -> new ArrayList<>()).add(hash));
+
+        List<UrlEntity> entities = new ArrayList<>(pending.size());
+        try {
+            hashesByLength.forEach((length, hashes) -> {
+                List<String> codes = generateBulkTimer.record(() -> shortCodeGenerator.generate(length, hashes.size()));
+                for (int i = 0; i < hashes.size(); i++) {
+                    String hash = hashes.get(i);
+                    entities.add(new UrlEntity(pending.get(hash).originalUrl, codes.get(i), hash));
+                }
+            });
+            urlRepository.saveAll(entities);
+        } catch (DataIntegrityViolationException | ShortCodeSpaceExhaustedException e) {
+            // Пачка откатывается целиком; оставшиеся URL сохраняются по одному с обработкой конфликтов
+            logger.warn("Пакетная вставка не удалась, сохранение по одному: {}", e.getMessage());
+            pending.values().forEach(url -> {
+                try {
+                    String shortUrl = shortenUrl(url.originalUrl, url.length);
+                    url.indexes.forEach(i -> results[i] = ShortenResult.success(commands.get(i).url(), shortUrl));
+                } catch (RuntimeException itemError) {
+                    url.indexes.forEach(i -> results[i] = ShortenResult.failure(commands.get(i).url(), itemError.getMessage()));
+                }
+            });
+            return;
         }
 
-        if (length > config.getMaxLength()) {
-            throw new IllegalArgumentException("Длина короткого URL не может превышать " + config.getMaxLength() + " символов");
+        for (UrlEntity entity : entities) {
+            shortCodeFilter.add(entity.getShortCode());
+            urlCache.put(entity.getShortCode(), entity.getOriginalUrl());
+            complete(results, commands, pending.get(entity.getUrlHash()), entity.getShortCode());
         }
+        logger.debug("Пакетно сохранено {} новых коротких ссылок", entities.size());
+    }
 
-        logger.info("Длина короткого URL проверена: {} символов", length);
+    private ShortenResult shortenIndividually(ShortenCommand command) {
+        try {
+            return ShortenResult.success(command.url(), shorten(command));
+        } catch (AliasConflictException e) {
+            return ShortenResult.failure(command.url(), e.getMessage() + ", свободные варианты: " + e.getSuggestions());
+        } catch (RuntimeException e) {
+            return ShortenResult.failure(command.url(), e.getMessage());
+        }
     }
 
-    private void validateUrl(String url) {
-        if (url == null || url.trim().isEmpty()) {
-            throw new IllegalArgumentException("URL не может быть пустым или null");
+    private void complete(ShortenResult[] results, List<ShortenCommand> commands, PendingUrl url, String shortCode) {
+        String shortUrl = buildShortUrl(shortCode);
+        for (int i : url.indexes) {
+            results[i] = ShortenResult.success(commands.get(i).url(), shortUrl);
         }
+    }
+
+    @Override
+    public Optional<CachedUrl> getRedirect(String shortCode) {
+        return lookupTimer.record(() -> doGetRedirect(shortCode));
+    }
 
-        if (url.length() > MAX_URL_LENGTH) {
-            throw new IllegalArgumentException("Длина URL превышает максимальный лимит в 2048 символов");
+    private Optional<CachedUrl> doGetRedirect(String shortCode) {
+        logger.debug("Поиск оригинального URL для короткого кода: {}", shortCode);
+
+        // Заведомо несуществующие коды (перебор случайных путей) не доходят ни до кэша, ни до базы
+        if (!shortCodeFilter.mightContain(shortCode)) {
+            logger.debug("Оригинальный URL не найден для короткого кода: {}", shortCode);
+            return Optional.empty();
         }
 
-        if (!isValidUrl(url)) {
-            throw new IllegalArgumentException("Неверный формат URL: " + url);
+        // Истекшие, но еще не удаленные фоновой очисткой ссылки считаются отсутствующими
+        Optional<CachedUrl> result = urlCache.get(shortCode, code -> findForRedirect(code)
+                .filter(record -> record.expiresAt() == null || record.expiresAt().isAfter(Instant.now()))
+                .map(record -> new CachedUrl(record.originalUrl(), record.expiresAt(), record.redirectStatus(),
+                        record.analytics())));
+
+        if (result.isPresent()) {
+            logger.debug("Оригинальный URL найден для короткого кода: {}", shortCode);
+        } else {
+            logger.debug("Оригинальный URL не найден для короткого кода: {}", shortCode);
         }
 
-        logger.info("URL прошел валидацию: {}", url);
+        return result;
+    }
+
+    private Optional<UrlRecord> findForRedirect(String shortCode) {
+        Optional<UrlRecord> record = urlRepository.findRecordByShortCode(shortCode);
+        if (record.isEmpty() && readReplicas) {
+            // Отставание реплики не должно превращаться в 404 для только что созданной ссылки
+            record = urlRepository.findRecordByShortCodeOnPrimary(shortCode);
+        }
+        return record;
+    }
+
+    private String buildShortUrl(String shortCode) {
+        return baseUrl + "/" + shortCode;
+    }
+
+    String generateUniqueShortCode(int desiredLength) {
+        return generateTimer.record(() -> shortCodeGenerator.generate(desiredLength));
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name).description(description).publishPercentileHistogram();
+    }
+
+    private static final class PendingUrl {
+        private final String originalUrl;
+        private final int length;
+        private final List<Integer> indexes = new ArrayList<>(1);
+
+        private PendingUrl(String originalUrl, int length) {
+            this.originalUrl = originalUrl;
+            this.length = length;
+        }
     }
-}
\ No newline at end of file
+}
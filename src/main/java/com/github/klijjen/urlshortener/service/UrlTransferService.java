@@ -0,0 +1,296 @@
+package com.github.klijjen.urlshortener.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.klijjen.urlshortener.cache.ShortCodeFilter;
+import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.repository.UrlRecord;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.github.klijjen.urlshortener.Utils.hashUrl;
+
+/**
+ * Выгрузка и загрузка таблицы ссылок в формате NDJSON (одна запись {"shortCode", "originalUrl", "expiresAt"} на строку,
+ * expiresAt только у ссылок со сроком действия).
+ * Обе операции работают пачками фиксированного размера, поэтому расход памяти не зависит от размера таблицы.
+ */
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "jpa", matchIfMissing = true)
+public class UrlTransferService {
+    private final static Logger logger = LoggerFactory.getLogger(UrlTransferService.class);
+    private static final int MAX_SHORT_CODE_LENGTH = 255;
+    // URL максимальной длины плюс код, срок действия, код редиректа и разметка JSON
+    private static final int MAX_LINE_LENGTH = ShortenValidator.MAX_URL_LENGTH + 1024;
+
+    private final UrlRepository urlRepository;
+    private final ShortCodeFilter shortCodeFilter;
+    private final ShortenValidator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.transfer.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Autowired
+    public UrlTransferService(UrlRepository urlRepository, ShortCodeFilter shortCodeFilter, ShortenValidator validator,
+                              TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+        this.urlRepository = urlRepository;
+        this.shortCodeFilter = shortCodeFilter;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public long exportTo(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        String after = "";
+        long exported = 0;
+
+        // Постраничный обход по shortCode: каждая страница - отдельный короткий запрос по индексу
+        while (true) {
+            List<UrlRecord> page = urlRepository.findRecordsAfter(after, PageRequest.ofSize(batchSize));
+            for (UrlRecord record : page) {
+                writer.write(objectMapper.writeValueAsString(record));
+                writer.write('\n');
+            }
+            writer.flush();
+            exported += page.size();
+
+            if (page.size() < batchSize) {
+                break;
+            }
+            after = page.get(page.size() - 1).shortCode();
+        }
+
+        logger.info("Выгружено {} записей", exported);
+        return exported;
+    }
+
+    public ImportResult importFrom(InputStream in) throws IOException {
+        // Строки читаются по мере записи пачек в базу: пока пачка сохраняется, тело запроса не читается,
+        // и клиент притормаживается механизмом управления потоком TCP
+        LineReader reader = new LineReader(new InputStreamReader(in, StandardCharsets.UTF_8), MAX_LINE_LENGTH);
+        List<UrlRecord> batch = new ArrayList<>(batchSize);
+        long imported = 0;
+        long skipped = 0;
+        long failed = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (reader.isTooLong()) {
+                failed++;
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            UrlRecord record = parse(line);
+            if (record == null) {
+                failed++;
+                continue;
+            }
+            batch.add(record);
+            if (batch.size() == batchSize) {
+                int saved = saveBatch(batch);
+                imported += saved;
+                skipped += batch.size() - saved;
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            int saved = saveBatch(batch);
+            imported += saved;
+            skipped += batch.size() - saved;
+        }
+
+        logger.info("Загружено {} записей, пропущено существующих и истекших {}, отклонено {}", imported, skipped, failed);
+        return new ImportResult(imported, skipped, failed);
+    }
+
+    private UrlRecord parse(String line) {
+        try {
+            UrlRecord record = objectMapper.readValue(line, UrlRecord.class);
+            if (!isValid(record)) {
+                return null;
+            }
+            // Хэш и сохраненный URL - в каноническом виде, как при сокращении, иначе загруженные ссылки
+            // не дедуплицировались бы с новыми запросами того же URL
+            String originalUrl = validator.canonicalizeUrl(record.originalUrl());
+            return new UrlRecord(record.shortCode(), originalUrl, record.expiresAt(), record.redirectStatus(), record.analytics());
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean isValid(UrlRecord record) {
+        String shortCode = record.shortCode();
+        if (shortCode == null || shortCode.isEmpty() || shortCode.length() > MAX_SHORT_CODE_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < shortCode.length(); i++) {
+            char c = shortCode.charAt(i);
+            boolean allowed = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '_';
+            if (!allowed) {
+                return false;
+            }
+        }
+        if (validator.isReservedAlias(shortCode)) {
+            return false;
+        }
+        if (record.redirectStatus() != null && !ShortenValidator.isRedirectStatus(record.redirectStatus())) {
+            return false;
+        }
+        if (!ShortenValidator.isAnalyticsCompatible(record.redirectStatus(), record.analytics())) {
+            return false;
+        }
+        return record.originalUrl() != null;
+    }
+
+    private int saveBatch(List<UrlRecord> batch) {
+        Instant now = Instant.now();
+        List<UrlEntity> saved;
+        try {
+            saved = transactionTemplate.execute(status -> insertNew(batch, now));
+        } catch (DataIntegrityViolationException e) {
+            // Код или URL занят параллельной вставкой между проверкой и вставкой: пачка откатилась целиком,
+            // ее записи сохраняются по одной, и конфликт пропускает только свою запись
+            logger.warn("Пакетная загрузка не удалась, сохранение по одной записи: {}", e.getMessage());
+            saved = new ArrayList<>(batch.size());
+            for (UrlRecord record : batch) {
+                try {
+                    saved.addAll(transactionTemplate.execute(status -> insertNew(List.of(record), now)));
+                } catch (DataIntegrityViolationException rowError) {
+                    logger.debug("Запись пропущена из-за конфликта: {}", record.shortCode());
+                }
+            }
+        }
+        saved.forEach(entity -> shortCodeFilter.add(entity.getShortCode()));
+        return saved.size();
+    }
+
+    private List<UrlEntity> insertNew(List<UrlRecord> batch, Instant now) {
+        Set<String> uncertainCodes = new HashSet<>();
+        List<String> hashes = new ArrayList<>(batch.size());
+        for (UrlRecord record : batch) {
+            if (shortCodeFilter.mightContain(record.shortCode())) {
+                uncertainCodes.add(record.shortCode());
+            }
+            hashes.add(hashUrl(record.originalUrl()));
+        }
+        Set<String> existingCodes = uncertainCodes.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(urlRepository.findExistingShortCodes(uncertainCodes));
+        Set<String> takenHashes = new HashSet<>(urlRepository.findExistingUrlHashes(hashes));
+
+        List<UrlEntity> entities = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            UrlRecord record = batch.get(i);
+            boolean expired = record.expiresAt() != null && !record.expiresAt().isAfter(now);
+            if (expired || !existingCodes.add(record.shortCode())) {
+                continue;
+            }
+            // Повторный URL под другим кодом, ссылки со сроком действия, кодом редиректа или признаком учета
+            // переходов сохраняются без хэша
+            boolean deduplicated = record.expiresAt() == null && record.redirectStatus() == null
+                    && record.analytics() == null;
+            String hash = deduplicated && takenHashes.add(hashes.get(i)) ? hashes.get(i) : null;
+            entities.add(new UrlEntity(record.originalUrl(), record.shortCode(), hash, record.expiresAt(),
+                    record.redirectStatus(), record.analytics()));
+        }
+        urlRepository.saveAll(entities);
+        return entities;
+    }
+
+    /**
+     * Построчное чтение с ограничением длины строки: строка длиннее maxLength не накапливается в памяти,
+     * а пропускается до перевода строки, и {@link #isTooLong()} для нее возвращает true.
+     */
+    private static final class LineReader {
+        private final Reader in;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean tooLong;
+
+        LineReader(Reader in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(0, in.read(buffer));
+                    position = 0;
+                    if (limit == 0) {
+                        return line.isEmpty() && !tooLong ? null : finish();
+                    }
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    position++;
+                    return finish();
+                }
+            }
+        }
+
+        boolean isTooLong() {
+            return tooLong;
+        }
+
+        private void append(int from, int to) {
+            if (tooLong) {
+                return;
+            }
+            if (line.length() + to - from > maxLength) {
+                tooLong = true;
+                line.setLength(0);
+                return;
+            }
+            line.append(buffer, from, to - from);
+        }
+
+        private String finish() {
+            int end = line.length();
+            if (end > 0 && line.charAt(end - 1) == '\r') {
+                end--;
+            }
+            return line.substring(0, end);
+        }
+    }
+
+    public record ImportResult(long imported, long skipped, long failed) {
+    }
+}
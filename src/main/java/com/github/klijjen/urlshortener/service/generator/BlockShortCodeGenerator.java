@@ -0,0 +1,78 @@
+package com.github.klijjen.urlshortener.service.generator;
+
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Генерирует коды из счетчика, значения которого выделяются блоками из базы данных.
+ * Для каждой длины кода ведется свой счетчик, значение кодируется алфавитом
+ * {@link ShortCodeEncoder} и дополняется слева до нужной длины, поэтому проверка существования кода не нужна.
+ */
+@Component
+@ConditionalOnProperty(name = "app.short-url.generator", havingValue = "block")
+public class BlockShortCodeGenerator implements ShortCodeGenerator {
+    private final CodeBlockAllocator allocator;
+    private final ShortCodeEncoder encoder;
+    private final int blockSize;
+    private final AtomicReferenceArray<Block> blocks;
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    @Autowired
+    public BlockShortCodeGenerator(CodeBlockAllocator allocator, ShortCodeEncoder encoder, UrlShortenerConfig config) {
+        this.allocator = allocator;
+        this.encoder = encoder;
+        this.blockSize = config.getBlockSize();
+        this.blocks = new AtomicReferenceArray<>(config.getMaxLength() + 1);
+    }
+
+    @Override
+    public String generate(int length) {
+        long value = nextValue(length);
+        if (value >= encoder.capacity(length)) {
+            throw new ShortCodeSpaceExhaustedException("Пространство коротких кодов длины " + length + " исчерпано");
+        }
+        return encoder.encode(value, length);
+    }
+
+    private long nextValue(int length) {
+        while (true) {
+            Block block = blocks.get(length);
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+            }
+            refill(length, block);
+        }
+    }
+
+    private void refill(int length, Block exhausted) {
+        refillLock.lock();
+        try {
+            // Блок мог быть уже заменен другим потоком, пока этот ждал блокировку
+            if (blocks.get(length) == exhausted) {
+                long start = allocator.allocate("short-code-" + length, blockSize);
+                blocks.set(length, new Block(start, start + blockSize));
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
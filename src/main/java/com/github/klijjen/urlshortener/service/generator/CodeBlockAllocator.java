@@ -0,0 +1,57 @@
+package com.github.klijjen.urlshortener.service.generator;
+
+import com.github.klijjen.urlshortener.repository.CodeSequenceEntity;
+import com.github.klijjen.urlshortener.repository.CodeSequenceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Выдает диапазоны значений именованных счетчиков из таблицы code_sequences.
+ * Строка счетчика блокируется на время короткой отдельной транзакции,
+ * поэтому диапазоны не пересекаются даже между несколькими экземплярами сервиса.
+ */
+@Component
+@ConditionalOnProperty(name = "app.short-url.generator", havingValue = "block")
+public class CodeBlockAllocator {
+    private final CodeSequenceRepository sequenceRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public CodeBlockAllocator(CodeSequenceRepository sequenceRepository, PlatformTransactionManager transactionManager) {
+        this.sequenceRepository = sequenceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @return первое значение выделенного диапазона [start, start + size)
+     */
+    public long allocate(String sequenceName, int size) {
+        try {
+            return transactionTemplate.execute(status -> allocateInTransaction(sequenceName, size));
+        } catch (DataIntegrityViolationException e) {
+            // Счетчик одновременно создан другим экземпляром - теперь строка существует
+            return transactionTemplate.execute(status -> allocateInTransaction(sequenceName, size));
+        }
+    }
+
+    private long allocateInTransaction(String sequenceName, int size) {
+        Optional<CodeSequenceEntity> sequence = sequenceRepository.findForUpdate(sequenceName);
+        if (sequence.isEmpty()) {
+            sequenceRepository.saveAndFlush(new CodeSequenceEntity(sequenceName, size));
+            return 0;
+        }
+
+        CodeSequenceEntity entity = sequence.get();
+        long start = entity.getNextValue();
+        entity.setNextValue(Math.addExact(start, size));
+        return start;
+    }
+}
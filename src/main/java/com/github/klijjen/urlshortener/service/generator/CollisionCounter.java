@@ -0,0 +1,37 @@
+package com.github.klijjen.urlshortener.service.generator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Метрика shortcode.collisions для одного этапа (generator или insert) с тегом номера попытки.
+ * Счетчики регистрируются один раз на попытку и дальше берутся из локальной карты, без поиска в реестре.
+ */
+public class CollisionCounter {
+    private final MeterRegistry meterRegistry;
+    private final String stage;
+    private final Map<Integer, Counter> counters = new ConcurrentHashMap<>();
+
+    public CollisionCounter(MeterRegistry meterRegistry, String stage) {
+        this.meterRegistry = meterRegistry;
+        this.stage = stage;
+    }
+
+    public void increment(int attempt) {
+        increment(attempt, 1);
+    }
+
+    public void increment(int attempt, int collisions) {
+        counters.computeIfAbsent(attempt, this::register).increment(collisions);
+    }
+
+    private Counter register(int attempt) {
+        return Counter.builder("shortcode.collisions")
+                .description("Коллизии коротких кодов по номеру попытки")
+                .tag("stage", stage).tag("attempt", String.valueOf(attempt))
+                .register(meterRegistry);
+    }
+}
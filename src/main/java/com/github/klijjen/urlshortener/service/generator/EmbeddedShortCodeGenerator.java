@@ -0,0 +1,37 @@
+package com.github.klijjen.urlshortener.service.generator;
+
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import com.github.klijjen.urlshortener.repository.MappedUrlRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Случайные коды для встроенного хранилища (профиль edge): проверка занятости - поиск в индексе вне кучи
+ * без обращения к базе. Окончательно занятость проверяется при вставке.
+ */
+@Component
+@ConditionalOnProperty(name = "app.short-url.generator", havingValue = "embedded")
+public class EmbeddedShortCodeGenerator implements ShortCodeGenerator {
+    private final MappedUrlRepository urlRepository;
+    private final ShortCodeEncoder encoder;
+    private final UrlShortenerConfig config;
+
+    @Autowired
+    public EmbeddedShortCodeGenerator(MappedUrlRepository urlRepository, ShortCodeEncoder encoder, UrlShortenerConfig config) {
+        this.urlRepository = urlRepository;
+        this.encoder = encoder;
+        this.config = config;
+    }
+
+    @Override
+    public String generate(int length) {
+        for (int attempt = 0; attempt < config.getMaxAttempts(); attempt++) {
+            String shortCode = encoder.random(length);
+            if (!urlRepository.existsByShortCode(shortCode)) {
+                return shortCode;
+            }
+        }
+        throw new ShortCodeSpaceExhaustedException("Не удалось сгенерировать уникальный короткий код после " + config.getMaxAttempts() + " попыток");
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.klijjen.urlshortener.service.generator;
+
+import com.github.klijjen.urlshortener.cache.ShortCodeFilter;
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@ConditionalOnProperty(name = "app.short-url.generator", havingValue = "random", matchIfMissing = true)
+public class RandomShortCodeGenerator implements ShortCodeGenerator {
+    private final static Logger logger = LoggerFactory.getLogger(RandomShortCodeGenerator.class);
+    private final UrlRepository urlRepository;
+    private final ShortCodeFilter shortCodeFilter;
+    private final ShortCodeEncoder encoder;
+    private final UrlShortenerConfig config;
+    private final CollisionCounter collisions;
+
+    @Autowired
+    public RandomShortCodeGenerator(UrlRepository urlRepository, ShortCodeFilter shortCodeFilter, ShortCodeEncoder encoder,
+                                    UrlShortenerConfig config, MeterRegistry meterRegistry) {
+        this.urlRepository = urlRepository;
+        this.shortCodeFilter = shortCodeFilter;
+        this.encoder = encoder;
+        this.config = config;
+        this.collisions = new CollisionCounter(meterRegistry, "generator");
+    }
+
+    @Override
+    public String generate(int length) {
+        int attempts = 0;
+
+        while (attempts < config.getMaxAttempts()) {
+            String shortCode = encoder.random(length);
+
+            if (!shortCodeFilter.mightContain(shortCode) || !urlRepository.existsByShortCode(shortCode)) {
+                logger.debug("Уникальный короткий код успешно сгенерирован: {}", shortCode);
+                return shortCode;
+            }
+            attempts++;
+            collisions.increment(attempts);
+            logger.debug("Обнаружена коллизия короткого кода, попытка {}/{}", attempts, config.getMaxAttempts());
+        }
+        logger.error("Не удалось сгенерировать уникальный короткий код после {} попыток", config.getMaxAttempts());
+        throw new ShortCodeSpaceExhaustedException("Не удалось сгенерировать уникальный короткий код после " + config.getMaxAttempts() + " попыток");
+    }
+
+    @Override
+    public List<String> generate(int length, int count) {
+        // Иначе набор кандидатов ниже никогда не наберется
+        if (count > encoder.capacity(length)) {
+            logger.error("Запрошено {} коротких кодов длины {}, а всего их {}", count, length, encoder.capacity(length));
+            throw new ShortCodeSpaceExhaustedException("Запрошено " + count + " коротких кодов длины " + length
+                    + ", а всего их " + encoder.capacity(length));
+        }
+        Set<String> codes = new HashSet<>(count * 2);
+        int attempts = 0;
+
+        // Кандидаты для всей пачки проверяются одним запросом за попытку
+        while (codes.size() < count && attempts < config.getMaxAttempts()) {
+            Set<String> candidates = new HashSet<>();
+            while (candidates.size() < count - codes.size()) {
+                String candidate = encoder.random(length);
+                if (!codes.contains(candidate)) {
+                    candidates.add(candidate);
+                }
+            }
+            // В базе проверяются только кандидаты, которые фильтр не отсек
+            List<String> uncertain = candidates.stream().filter(shortCodeFilter::mightContain).toList();
+            attempts++;
+            if (!uncertain.isEmpty()) {
+                int before = candidates.size();
+                candidates.removeAll(urlRepository.findExistingShortCodes(uncertain));
+                if (candidates.size() < before) {
+                    collisions.increment(attempts, before - candidates.size());
+                }
+            }
+            codes.addAll(candidates);
+        }
+
+        if (codes.size() < count) {
+            logger.error("Не удалось сгенерировать {} уникальных коротких кодов после {} попыток", count, config.getMaxAttempts());
+            throw new ShortCodeSpaceExhaustedException("Не удалось сгенерировать уникальный короткий код после " + config.getMaxAttempts() + " попыток");
+        }
+        return new ArrayList<>(codes);
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.klijjen.urlshortener.service.generator;
+
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Кодирует неотрицательные long в строку фиксированной длины в системе счисления,
+ * заданной алфавитом (по умолчанию base62). Работает напрямую с числами,
+ * без промежуточных строк: единственная аллокация - итоговый код.
+ */
+@Component
+public class ShortCodeEncoder {
+    private final char[] alphabet;
+    private final long[] capacities;
+
+    @Autowired
+    public ShortCodeEncoder(UrlShortenerConfig config) {
+        this.alphabet = validateAlphabet(config.getAlphabet());
+        this.capacities = new long[config.getMaxLength() + 1];
+        long capacity = 1;
+        for (int length = 0; length < capacities.length; length++) {
+            capacities[length] = capacity;
+            capacity = capacity > Long.MAX_VALUE / alphabet.length ? Long.MAX_VALUE : capacity * alphabet.length;
+        }
+    }
+
+    public int base() {
+        return alphabet.length;
+    }
+
+    /**
+     * Количество различных кодов указанной длины; Long.MAX_VALUE, если оно не помещается в long.
+     */
+    public long capacity(int length) {
+        return capacities[length];
+    }
+
+    public String encode(long value, int length) {
+        char[] chars = new char[length];
+        encode(value, chars, 0, length);
+        return new String(chars);
+    }
+
+    /**
+     * Записывает value в dest[offset, offset + length), дополняя слева нулевым символом алфавита.
+     * Старшие разряды, не поместившиеся в length символов, отбрасываются.
+     */
+    public void encode(long value, char[] dest, int offset, int length) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Кодируемое значение не может быть отрицательным: " + value);
+        }
+        int base = alphabet.length;
+        for (int i = offset + length - 1; i >= offset; i--) {
+            dest[i] = alphabet[(int) (value % base)];
+            value /= base;
+        }
+    }
+
+    /**
+     * Случайный код указанной длины, равномерно распределенный по всем кодам этой длины.
+     */
+    public String random(int length) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] chars = new char[length];
+        // Код собирается из кусков, каждый из которых равномерно покрывает свое пространство значений в long
+        int offset = 0;
+        while (offset < length) {
+            int chunk = length - offset;
+            while (capacity(chunk) == Long.MAX_VALUE) {
+                chunk--;
+            }
+            encode(random.nextLong(capacity(chunk)), chars, offset, chunk);
+            offset += chunk;
+        }
+        return new String(chars);
+    }
+
+    private static char[] validateAlphabet(String alphabet) {
+        if (alphabet == null || alphabet.length() < 2) {
+            throw new IllegalArgumentException("Алфавит коротких кодов должен содержать не менее 2 символов");
+        }
+        boolean[] seen = new boolean[128];
+        for (char c : alphabet.toCharArray()) {
+            boolean urlSafe = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-' || c == '_';
+            if (!urlSafe) {
+                throw new IllegalArgumentException("Недопустимый символ в алфавите коротких кодов: " + c);
+            }
+            if (seen[c]) {
+                throw new IllegalArgumentException("Повторяющийся символ в алфавите коротких кодов: " + c);
+            }
+            seen[c] = true;
+        }
+        return alphabet.toCharArray();
+    }
+}
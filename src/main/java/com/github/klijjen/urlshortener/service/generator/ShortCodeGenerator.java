@@ -0,0 +1,16 @@
+package com.github.klijjen.urlshortener.service.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public interface ShortCodeGenerator {
+    String generate(int length);
+
+    default List<String> generate(int length, int count) {
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add(generate(length));
+        }
+        return codes;
+    }
+}
@@ -0,0 +1,12 @@
+package com.github.klijjen.urlshortener.service.generator;
+
+/**
+ * Не удалось выдать свободный короткий код: пространство кодов нужной длины исчерпано
+ * или все попытки найти свободный код закончились коллизиями.
+ */
+public class ShortCodeSpaceExhaustedException extends IllegalStateException {
+
+    public ShortCodeSpaceExhaustedException(String message) {
+        super(message);
+    }
+}
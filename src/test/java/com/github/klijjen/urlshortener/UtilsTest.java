@@ -0,0 +1,44 @@
+package com.github.klijjen.urlshortener;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты Utils")
+class UtilsTest {
+
+    @Test
+    @DisplayName("UUIDv7 строго возрастают в порядке выдачи")
+    void getTimeOrderedUUID_ShouldBeMonotonic() {
+        // Arrange
+        UUID previous = Utils.getTimeOrderedUUID();
+
+        // Act & Assert
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = Utils.getTimeOrderedUUID();
+            assertEquals(7, next.version());
+            assertEquals(2, next.variant());
+            assertTrue(next.compareTo(previous) > 0, "UUID должен быть больше предыдущего");
+            previous = next;
+        }
+    }
+
+    @Test
+    @DisplayName("UUIDv7 для существующей записи содержит время ее создания")
+    void getTimeOrderedUUID_ShouldEncodeGivenTime() {
+        // Arrange
+        Instant createdAt = Instant.parse("2024-05-01T12:00:00.123Z");
+
+        // Act
+        UUID id = Utils.getTimeOrderedUUID(createdAt);
+
+        // Assert
+        assertEquals(7, id.version());
+        assertEquals(createdAt.toEpochMilli(), id.getMostSignificantBits() >>> 16);
+        assertTrue(id.compareTo(Utils.getTimeOrderedUUID()) < 0);
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.klijjen.urlshortener.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование индекса упакованных коротких кодов")
+class PackedUrlIndexTest {
+    private static final long FOREVER = Long.MAX_VALUE;
+
+    @Test
+    @DisplayName("Разные коды должны упаковываться в разные ключи, неподходящие - не упаковываться")
+    void pack_ShouldBeInjectiveAndRejectUnsupportedCodes() {
+        // Arrange
+        Set<Long> keys = new HashSet<>();
+
+        // Act & Assert
+        for (String code : new String[]{"0", "00", "a", "A", "-", "_", "abc123", "abc1230", "zzzzzzzzzz", "__________"}) {
+            long key = PackedUrlIndex.pack(code);
+            assertNotEquals(PackedUrlIndex.NOT_PACKABLE, key, code);
+            assertTrue(keys.add(key), code);
+        }
+        assertEquals(PackedUrlIndex.NOT_PACKABLE, PackedUrlIndex.pack(""));
+        assertEquals(PackedUrlIndex.NOT_PACKABLE, PackedUrlIndex.pack("abcdefghijk"));
+        assertEquals(PackedUrlIndex.NOT_PACKABLE, PackedUrlIndex.pack("ab.c"));
+        assertEquals(PackedUrlIndex.NOT_PACKABLE, PackedUrlIndex.pack("кот"));
+    }
+
+    @Test
+    @DisplayName("Индекс должен возвращать URL, отрицательные и истекшие записи")
+    void get_ShouldDistinguishPresentMissingAndExpired() {
+        // Arrange
+        PackedUrlIndex index = new PackedUrlIndex(16);
+        long now = System.nanoTime();
+        long present = PackedUrlIndex.pack("abc123");
+        long missing = PackedUrlIndex.pack("zzz999");
+        long expired = PackedUrlIndex.pack("old000");
+
+        // Act
+        assertTrue(index.put(present, CachedUrl.permanent("https://пример.рф/путь"), now, FOREVER));
+        index.put(missing, null, now, FOREVER);
+        index.put(expired, CachedUrl.permanent("https://example.com/old"), now, 100);
+
+        // Assert
+        assertEquals(CachedUrl.permanent("https://пример.рф/путь"), index.get(present, now));
+        assertSame(PackedUrlIndex.MISSING, index.get(missing, now));
+        assertNull(index.get(expired, now + 100));
+        assertNull(index.get(PackedUrlIndex.pack("nope00"), now));
+        assertFalse(index.put(missing, CachedUrl.permanent("https://example.com/found"), now, FOREVER));
+        assertEquals(CachedUrl.permanent("https://example.com/found"), index.get(missing, now));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    @DisplayName("Индекс должен сохранять срок действия ссылки, код редиректа и признак учета переходов")
+    void get_WithExpiryAndRedirectStatus_ShouldRoundTrip() {
+        // Arrange
+        PackedUrlIndex index = new PackedUrlIndex(16);
+        long now = System.nanoTime();
+        CachedUrl link = new CachedUrl("https://example.com/promo", Instant.ofEpochMilli(1_900_000_000_123L), 308, false);
+        CachedUrl moved = new CachedUrl("https://example.com/moved", null, 301, null);
+        CachedUrl tracked = new CachedUrl("https://example.com/tracked", null, null, true);
+
+        // Act
+        index.put(PackedUrlIndex.pack("promo1"), link, now, FOREVER);
+        index.put(PackedUrlIndex.pack("moved1"), moved, now, FOREVER);
+        index.put(PackedUrlIndex.pack("track1"), tracked, now, FOREVER);
+
+        // Assert
+        assertEquals(link, index.get(PackedUrlIndex.pack("promo1"), now));
+        assertEquals(moved, index.get(PackedUrlIndex.pack("moved1"), now));
+        assertEquals(tracked, index.get(PackedUrlIndex.pack("track1"), now));
+    }
+
+    @Test
+    @DisplayName("Повторно выданный код должен заменять URL истекшей ссылки")
+    void put_ReissuedCode_ShouldReplaceStoredUrl() {
+        // Arrange
+        PackedUrlIndex index = new PackedUrlIndex(16);
+        long now = System.nanoTime();
+        long key = PackedUrlIndex.pack("abc123");
+        CachedUrl reissued = CachedUrl.permanent("https://example.com/new");
+        index.put(key, new CachedUrl("https://example.com/old", Instant.ofEpochMilli(1_700_000_000_000L)), now, FOREVER);
+
+        // Act
+        boolean added = index.put(key, reissued, now, FOREVER);
+
+        // Assert
+        assertFalse(added);
+        assertEquals(reissued, index.get(key, now));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Вытеснение старейших записей должно сохранять остальные при росте таблицы и уплотнении URL")
+    void evictEldest_ManyEntries_ShouldKeepNewestReachable() {
+        // Arrange
+        PackedUrlIndex index = new PackedUrlIndex(16);
+        long now = System.nanoTime();
+        int total = 5_000;
+        int kept = 1_000;
+
+        // Act
+        for (int i = 0; i < total; i++) {
+            index.put(PackedUrlIndex.pack("c" + i), CachedUrl.permanent("https://example.com/" + i), now, FOREVER);
+            if (index.size() > kept) {
+                assertTrue(index.evictEldest());
+            }
+        }
+
+        // Assert
+        assertEquals(kept, index.size());
+        for (int i = 0; i < total; i++) {
+            CachedUrl url = index.get(PackedUrlIndex.pack("c" + i), now);
+            if (i < total - kept) {
+                assertNull(url, "c" + i);
+            } else {
+                assertEquals(CachedUrl.permanent("https://example.com/" + i), url);
+            }
+        }
+    }
+}
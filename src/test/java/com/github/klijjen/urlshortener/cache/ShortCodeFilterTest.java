@@ -0,0 +1,91 @@
+package com.github.klijjen.urlshortener.cache;
+
+import com.github.klijjen.urlshortener.config.ShortCodeFilterConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование фильтра коротких кодов")
+class ShortCodeFilterTest {
+
+    private static ShortCodeFilter createFilter(long expectedInsertions, double falsePositiveRate) {
+        ShortCodeFilterConfig config = new ShortCodeFilterConfig();
+        config.setEnabled(true);
+        config.setExpectedInsertions(expectedInsertions);
+        config.setFalsePositiveRate(falsePositiveRate);
+        return new ShortCodeFilter(config);
+    }
+
+    @Test
+    @DisplayName("До окончания загрузки фильтр не должен отсекать коды")
+    void mightContain_BeforeLoad_ShouldReturnTrue() {
+        ShortCodeFilter filter = createFilter(1000, 0.01);
+
+        assertTrue(filter.mightContain("abc123"));
+
+        filter.markLoaded();
+        assertFalse(filter.mightContain("abc123"));
+    }
+
+    @Test
+    @DisplayName("Добавленные коды всегда должны находиться, а доля ложных срабатываний - соответствовать настройке")
+    void mightContain_AfterLoad_ShouldHaveNoFalseNegatives() {
+        // Arrange
+        int insertions = 10_000;
+        ShortCodeFilter filter = createFilter(insertions, 0.01);
+        for (int i = 0; i < insertions; i++) {
+            filter.add("code" + i);
+        }
+        filter.markLoaded();
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < insertions; i++) {
+            assertTrue(filter.mightContain("code" + i));
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < insertions * 0.02, "ложных срабатываний: " + falsePositives);
+        assertTrue(filter.fillRatio() > 0.4 && filter.fillRatio() < 0.6);
+        assertEquals(0.01, filter.falsePositiveRate(), 0.005);
+    }
+
+    @Test
+    @DisplayName("Выключенный фильтр должен пропускать любой код")
+    void mightContain_WhenDisabled_ShouldReturnTrue() {
+        ShortCodeFilterConfig config = new ShortCodeFilterConfig();
+        config.setEnabled(false);
+        ShortCodeFilter filter = new ShortCodeFilter(config);
+        filter.markLoaded();
+
+        assertTrue(filter.mightContain("abc123"));
+    }
+
+    @Test
+    @DisplayName("Включенный фильтр не должен запускаться вместе с репликами чтения")
+    void validate_WhenEnabledWithReadReplicas_ShouldThrow() {
+        // Arrange
+        ShortCodeFilter filter = createFilter(1000, 0.01);
+        filter.setReadReplicas(true);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, filter::validate);
+    }
+
+    @Test
+    @DisplayName("По умолчанию фильтр должен быть выключен и совместим с репликами чтения")
+    void validate_ByDefault_ShouldAllowReadReplicas() {
+        // Arrange
+        ShortCodeFilter filter = new ShortCodeFilter(new ShortCodeFilterConfig());
+        filter.setReadReplicas(true);
+        filter.markLoaded();
+
+        // Act & Assert
+        assertDoesNotThrow(filter::validate);
+        assertTrue(filter.mightContain("abc123"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.klijjen.urlshortener.cache;
+
+import com.github.klijjen.urlshortener.config.UrlCacheConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование снимка кэша коротких ссылок")
+class UrlCacheSnapshotTest {
+    private static final String SOURCE = "jdbc:h2:mem:snapshot";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Снимок должен восстанавливать упакованные коды и псевдонимы без отрицательных записей")
+    void writeAndRead_ShouldRestoreLiveEntries() throws IOException {
+        // Arrange
+        Path file = directory.resolve("cache.snapshot");
+        UrlCache cache = new UrlCache(new UrlCacheConfig());
+        cache.put("abc123", "https://пример.рф/путь");
+        cache.put("my-long-alias", "https://example.com/alias");
+        CachedUrl moved = new CachedUrl("https://example.com/moved", null, 301, false);
+        cache.put("moved1", moved);
+        cache.put("missing", (CachedUrl) null);
+
+        // Act
+        int saved = UrlCacheSnapshot.write(file, SOURCE, cache, Instant.now());
+        UrlCache restored = new UrlCache(new UrlCacheConfig());
+        int loaded = UrlCacheSnapshot.read(file, SOURCE, restored, Instant.now());
+
+        // Assert
+        assertEquals(3, saved);
+        assertEquals(3, loaded);
+        assertEquals(CachedUrl.permanent("https://пример.рф/путь"), restored.getIfPresent("abc123"));
+        assertEquals(CachedUrl.permanent("https://example.com/alias"), restored.getIfPresent("my-long-alias"));
+        assertEquals(moved, restored.getIfPresent("moved1"));
+        assertNull(restored.getIfPresent("missing"));
+    }
+
+    @Test
+    @DisplayName("Записи, истекшие к моменту загрузки, не должны восстанавливаться")
+    void read_AfterTtl_ShouldSkipExpiredEntries() throws IOException {
+        // Arrange
+        Path file = directory.resolve("cache.snapshot");
+        UrlCache cache = new UrlCache(new UrlCacheConfig());
+        cache.put("abc123", "https://example.com");
+        cache.put("soon12", "https://example.com/soon", Instant.now().plusSeconds(60));
+        UrlCacheSnapshot.write(file, SOURCE, cache, Instant.now());
+
+        // Act
+        UrlCache restored = new UrlCache(new UrlCacheConfig());
+        int loaded = UrlCacheSnapshot.read(file, SOURCE, restored, Instant.now().plusSeconds(120));
+
+        // Assert
+        assertEquals(1, loaded);
+        assertNull(restored.getIfPresent("soon12"));
+        assertNotNull(restored.getIfPresent("abc123"));
+    }
+
+    @Test
+    @DisplayName("Поврежденный снимок и снимок другой базы должны отклоняться")
+    void read_CorruptedOrForeignSnapshot_ShouldFail() throws IOException {
+        // Arrange
+        Path file = directory.resolve("cache.snapshot");
+        UrlCache cache = new UrlCache(new UrlCacheConfig());
+        cache.put("abc123", "https://example.com");
+        UrlCacheSnapshot.write(file, SOURCE, cache, Instant.now());
+        UrlCache restored = new UrlCache(new UrlCacheConfig());
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> UrlCacheSnapshot.read(file, "jdbc:h2:mem:other", restored, Instant.now()));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> UrlCacheSnapshot.read(file, SOURCE, restored, Instant.now()));
+        assertEquals(0, restored.size());
+    }
+}
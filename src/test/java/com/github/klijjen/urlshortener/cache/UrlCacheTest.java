@@ -0,0 +1,162 @@
+package com.github.klijjen.urlshortener.cache;
+
+import com.github.klijjen.urlshortener.config.UrlCacheConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование кэша коротких ссылок")
+class UrlCacheTest {
+
+    private UrlCache createCache(int maxSize, Duration ttl, Duration negativeTtl) {
+        UrlCacheConfig config = new UrlCacheConfig();
+        config.setMaxSize(maxSize);
+        config.setTtl(ttl);
+        config.setNegativeTtl(negativeTtl);
+        return new UrlCache(config);
+    }
+
+    @Test
+    @DisplayName("Повторное чтение должно обслуживаться из кэша")
+    void get_RepeatedLookup_ShouldLoadOnce() {
+        // Arrange
+        UrlCache cache = createCache(10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get("abc123", code -> {
+            loads.incrementAndGet();
+            return Optional.of(CachedUrl.permanent("https://example.com"));
+        });
+        Optional<CachedUrl> result = cache.get("abc123", code -> {
+            loads.incrementAndGet();
+            return Optional.of(CachedUrl.permanent("https://example.com"));
+        });
+
+        // Assert
+        assertEquals(Optional.of(CachedUrl.permanent("https://example.com")), result);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    @DisplayName("Отсутствующий код должен кэшироваться как отрицательный результат")
+    void get_MissingCode_ShouldCacheNegativeResult() {
+        // Arrange
+        UrlCache cache = createCache(10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get("missing", code -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Optional<CachedUrl> result = cache.get("missing", code -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // Assert
+        assertFalse(result.isPresent());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Сохранение должно заменять отрицательный результат")
+    void put_AfterNegativeLookup_ShouldReplaceEntry() {
+        // Arrange
+        UrlCache cache = createCache(10, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        cache.get("abc123", code -> Optional.empty());
+
+        // Act
+        cache.put("abc123", "https://example.com");
+        Optional<CachedUrl> result = cache.get("abc123", code -> Optional.empty());
+
+        // Assert
+        assertEquals(Optional.of(CachedUrl.permanent("https://example.com")), result);
+    }
+
+    @Test
+    @DisplayName("Просроченная запись должна загружаться повторно")
+    void get_ExpiredEntry_ShouldReload() {
+        // Arrange
+        UrlCache cache = createCache(10, Duration.ofNanos(1), Duration.ofNanos(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get("abc123", code -> Optional.of(CachedUrl.permanent("https://example.com/" + loads.incrementAndGet())));
+        Optional<CachedUrl> result = cache.get("abc123", code -> Optional.of(CachedUrl.permanent("https://example.com/" + loads.incrementAndGet())));
+
+        // Assert
+        assertEquals(Optional.of(CachedUrl.permanent("https://example.com/2")), result);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    @DisplayName("Запись о ссылке со сроком действия не должна переживать саму ссылку")
+    void get_LinkExpiringBeforeTtl_ShouldReloadAfterLinkExpiry() throws Exception {
+        // Arrange
+        UrlCache cache = createCache(10, Duration.ofMinutes(30), Duration.ofMinutes(30));
+        AtomicInteger loads = new AtomicInteger();
+        Instant expiresAt = Instant.now().plusMillis(50);
+
+        // Act
+        cache.get("abc123", code -> {
+            loads.incrementAndGet();
+            return Optional.of(new CachedUrl("https://example.com", expiresAt));
+        });
+        Thread.sleep(100);
+        Optional<CachedUrl> result = cache.get("abc123", code -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // Assert
+        assertFalse(result.isPresent());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("При переполнении должны вытесняться самые старые записи")
+    void put_OverMaxSize_ShouldEvictEldest() {
+        // Arrange
+        UrlCache cache = createCache(2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        // Act
+        cache.put("code1", "https://example.com/1");
+        cache.put("code2", "https://example.com/2");
+        cache.put("code3", "https://example.com/3");
+
+        // Assert
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertFalse(cache.get("code1", code -> Optional.empty()).isPresent());
+        assertTrue(cache.get("code3", code -> Optional.empty()).isPresent());
+    }
+
+    @Test
+    @DisplayName("Длинные коды должны кэшироваться наравне с упакованными и вытесняться первыми")
+    void put_LongAndPackedCodes_ShouldShareSizeLimit() {
+        // Arrange
+        UrlCache cache = createCache(2, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        // Act
+        cache.put("my-long-alias", "https://example.com/alias");
+        cache.put("code1", "https://example.com/1");
+        cache.put("code2", "https://example.com/2");
+
+        // Assert
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertNull(cache.getIfPresent("my-long-alias"));
+        assertEquals(CachedUrl.permanent("https://example.com/1"), cache.getIfPresent("code1"));
+        assertEquals(CachedUrl.permanent("https://example.com/2"), cache.getIfPresent("code2"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.klijjen.urlshortener.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Прогрев кэша коротких ссылок при старте")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:cache-warmup;DB_CLOSE_DELAY=-1",
+        "app.cache.snapshot.enabled=true",
+        "app.cache.warmup.top-clicks=2",
+        "app.short-code-filter.enabled=false",
+        "app.analytics.enabled=false",
+        "app.expiry.purge.enabled=false",
+        "app.migration.url-hash-backfill.enabled=false"
+})
+class UrlCacheWarmerTest {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void snapshotPath(DynamicPropertyRegistry registry) {
+        registry.add("app.cache.snapshot.path", () -> directory.resolve("cache.snapshot").toString());
+    }
+
+    @Autowired
+    private UrlCacheWarmer warmer;
+
+    @Autowired
+    private UrlCache urlCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private void insert(String shortCode, long clicks, Instant expiresAt) {
+        jdbcTemplate.update("INSERT INTO urls (id, original_url, short_code, expires_at) VALUES (?, ?, ?, ?)",
+                UUID.randomUUID(), "https://example.com/" + shortCode, shortCode,
+                expiresAt != null ? Timestamp.from(expiresAt) : null);
+        jdbcTemplate.update("INSERT INTO url_stats (short_code, clicks) VALUES (?, ?)", shortCode, clicks);
+    }
+
+    @Test
+    @DisplayName("Без снимка загружаются самые посещаемые живые ссылки, со снимком - записи снимка")
+    void warmUp_ShouldPreferSnapshotAndFallBackToMostClicked() {
+        // Arrange
+        insert("top1", 500, null);
+        insert("expired", 1000, Instant.now().minusSeconds(60));
+        insert("top2", 300, Instant.now().plusSeconds(3600));
+        insert("cold", 10, null);
+
+        // Act
+        int fromDatabase = warmer.warmUp();
+
+        // Assert
+        assertEquals(2, fromDatabase);
+        assertEquals(CachedUrl.permanent("https://example.com/top1"), urlCache.getIfPresent("top1"));
+        assertNotNull(urlCache.getIfPresent("top2"));
+        assertNull(urlCache.getIfPresent("expired"));
+        assertNull(urlCache.getIfPresent("cold"));
+
+        // Act: снимок сохраняется с записями кэша и загружается при следующем прогреве вместо запроса к базе
+        urlCache.put("hot123", "https://example.com/hot");
+        assertEquals(3, warmer.save());
+        jdbcTemplate.update("DELETE FROM url_stats");
+        int fromSnapshot = warmer.warmUp();
+
+        // Assert
+        assertEquals(3, fromSnapshot);
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.klijjen.urlshortener.config;
+
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import com.github.klijjen.urlshortener.service.UrlService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Основная база и реплика - две независимые H2 в памяти; схему на реплике тест создает сам,
+ * а репликация не настроена, поэтому реплика видит только записи, добавленные в нее напрямую.
+ */
+@DisplayName("Маршрутизация чтения на реплики")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.read-replicas.enabled=true",
+        "app.datasource.read-replicas.urls=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "app.short-code-filter.enabled=false",
+        "app.cache.enabled=false",
+        "app.analytics.enabled=false",
+        "app.expiry.purge.enabled=false",
+        "app.migration.url-hash-backfill.enabled=false"
+})
+class ReadReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private UrlService urlService;
+
+    @BeforeEach
+    void createReplicaSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "password");
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE IF NOT EXISTS urls (
+                        id UUID PRIMARY KEY,
+                        original_url VARCHAR(2048) NOT NULL,
+                        short_code VARCHAR(255) NOT NULL UNIQUE,
+                        url_hash VARCHAR(64),
+                        created_at TIMESTAMP(6) WITH TIME ZONE,
+                        expires_at TIMESTAMP(6) WITH TIME ZONE,
+                        redirect_status INTEGER,
+                        analytics BOOLEAN)
+                    """);
+        }
+    }
+
+    @Test
+    @DisplayName("Поиск для редиректа выполняется на реплике, а не на основной базе")
+    void findByShortCode_ShouldReadFromReplica() throws SQLException {
+        // Arrange
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "password");
+             PreparedStatement statement = connection.prepareStatement(
+                     "INSERT INTO urls (id, original_url, short_code) VALUES (?, ?, ?)")) {
+            statement.setObject(1, UUID.randomUUID());
+            statement.setString(2, "https://example.com/replica");
+            statement.setString(3, "onreplica");
+            statement.executeUpdate();
+        }
+
+        // Act & Assert
+        assertTrue(urlRepository.findRecordByShortCode("onreplica").isPresent());
+        assertTrue(urlRepository.findRecordByShortCodeOnPrimary("onreplica").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Новая ссылка сохраняется на основной базе и находится, хотя до реплики еще не дошла")
+    void getOriginalUrl_WithCodeMissingOnReplica_ShouldFallBackToPrimary() {
+        // Act
+        String shortUrl = urlService.shortenUrl("https://example.com/fresh");
+        String shortCode = shortUrl.substring(shortUrl.lastIndexOf('/') + 1);
+
+        // Assert
+        assertTrue(urlRepository.findRecordByShortCode(shortCode).isEmpty());
+        assertEquals("https://example.com/fresh", urlService.getOriginalUrl(shortCode).orElseThrow());
+        // Проверки при записи (дедупликация по хэшу) видят основную базу
+        assertEquals(shortUrl, urlService.shortenUrl("https://example.com/fresh"));
+    }
+}
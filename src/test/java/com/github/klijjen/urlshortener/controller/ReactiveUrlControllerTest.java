@@ -0,0 +1,150 @@
+package com.github.klijjen.urlshortener.controller;
+
+import com.github.klijjen.urlshortener.cache.CachedUrl;
+import com.github.klijjen.urlshortener.controller.dto.ShortenRequest;
+import com.github.klijjen.urlshortener.service.AliasConflictException;
+import com.github.klijjen.urlshortener.service.ClickStatsService;
+import com.github.klijjen.urlshortener.service.ReactiveUrlService;
+import com.github.klijjen.urlshortener.service.ShortenCommand;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeSpaceExhaustedException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Тесты реактивного REST контроллера для сокращения URL")
+@WebFluxTest(ReactiveUrlController.class)
+@Import(RedirectPolicy.class)
+class ReactiveUrlControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveUrlService urlService;
+
+    @MockBean
+    private ClickStatsService clickStatsService;
+
+    @Test
+    @DisplayName("Должен вернуть короткий URL при валидном оригинальном URL")
+    void shortenUrl_WithValidUrl_ShouldReturnShortUrl() {
+        // Arrange
+        when(urlService.shorten(any(ShortenCommand.class))).thenReturn(Mono.just("http://localhost:8080/abc123"));
+
+        // Act & Assert
+        webTestClient.post().uri("/shorten").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ShortenRequest("https://example.com", null))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.shortUrl").isEqualTo("http://localhost:8080/abc123")
+                .jsonPath("$.originalUrl").isEqualTo("https://example.com");
+    }
+
+    @Test
+    @DisplayName("Должен вернуть 400 при невалидном URL")
+    void shortenUrl_WithInvalidUrl_ShouldReturnBadRequest() {
+        // Arrange
+        when(urlService.shorten(any(ShortenCommand.class)))
+                .thenReturn(Mono.error(new IllegalArgumentException("Неверный формат URL: invalid-url")));
+
+        // Act & Assert
+        webTestClient.post().uri("/shorten").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ShortenRequest("invalid-url", null))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Ошибка валидации")
+                .jsonPath("$.message").isEqualTo("Неверный формат URL: invalid-url");
+    }
+
+    @Test
+    @DisplayName("Должен вернуть 400 при слишком короткой ссылке, не вызывая сервис")
+    void shortenUrl_WithTooShortLength_ShouldReturnBadRequest() {
+        webTestClient.post().uri("/shorten").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ShortenRequest("https://example.com", 2))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Ошибка валидации");
+
+        verify(urlService, never()).shorten(any());
+    }
+
+    @Test
+    @DisplayName("Должен вернуть 503 при исчерпании кодов и 500 при прочих ошибках состояния")
+    void shortenUrl_WhenServiceFails_ShouldMapOnlyCodeSpaceExhaustionToServiceUnavailable() {
+        // Arrange
+        when(urlService.shorten(any(ShortenCommand.class)))
+                .thenReturn(Mono.error(new ShortCodeSpaceExhaustedException("Пространство коротких кодов длины 6 исчерпано")))
+                .thenReturn(Mono.error(new IllegalStateException("Внутренняя ошибка")));
+
+        // Act & Assert
+        webTestClient.post().uri("/shorten").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ShortenRequest("https://example.com", null))
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Не удалось выдать короткий код, повторите запрос позже");
+        webTestClient.post().uri("/shorten").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ShortenRequest("https://example.com", null))
+                .exchange()
+                .expectStatus().isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("Должен вернуть 409 со свободными вариантами, если псевдоним занят")
+    void shortenUrl_WithTakenAlias_ShouldReturnConflict() {
+        // Arrange
+        when(urlService.shorten(any(ShortenCommand.class)))
+                .thenReturn(Mono.error(new AliasConflictException("promo", List.of("promo-1", "promo-2"))));
+
+        // Act & Assert
+        webTestClient.post().uri("/shorten").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ShortenRequest("https://example.com", null, "promo"))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.suggestions[0]").isEqualTo("promo-1");
+    }
+
+    @Test
+    @DisplayName("Должен выполнить редирект на оригинальный URL и учесть переход")
+    void redirect_WithExistingShortCode_ShouldRedirect() {
+        // Arrange
+        when(urlService.getRedirect("abc123")).thenReturn(Mono.just(CachedUrl.permanent("https://example.com")));
+
+        // Act & Assert
+        webTestClient.get().uri("/abc123")
+                .exchange()
+                .expectStatus().isFound()
+                .expectHeader().valueEquals("Location", "https://example.com");
+
+        verify(clickStatsService).recordClick("abc123");
+    }
+
+    @Test
+    @DisplayName("Должен вернуть 404 для несуществующего короткого кода")
+    void redirect_WithUnknownShortCode_ShouldReturnNotFound() {
+        // Arrange
+        when(urlService.getRedirect("nonexistent")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        webTestClient.get().uri("/nonexistent")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
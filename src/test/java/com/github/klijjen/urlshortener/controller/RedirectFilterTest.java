@@ -0,0 +1,208 @@
+package com.github.klijjen.urlshortener.controller;
+
+import com.github.klijjen.urlshortener.cache.CachedUrl;
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import com.github.klijjen.urlshortener.service.ClickStatsService;
+import com.github.klijjen.urlshortener.service.UrlService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование фильтра быстрого редиректа")
+class RedirectFilterTest {
+
+    @Mock
+    private UrlService urlService;
+
+    @Mock
+    private ClickStatsService clickStatsService;
+
+    private RedirectFilter redirectFilter;
+
+    @BeforeEach
+    void setUp() {
+        redirectFilter = createFilter(false);
+    }
+
+    private RedirectFilter createFilter(boolean analyticsEnabled) {
+        return new RedirectFilter(urlService, clickStatsService, new RedirectPolicy(302, 86_400, analyticsEnabled),
+                new UrlShortenerConfig());
+    }
+
+    @Test
+    @DisplayName("Существующий короткий код должен перенаправляться без передачи запроса дальше")
+    void doFilter_WithExistingShortCode_ShouldRedirect() throws Exception {
+        // Arrange
+        when(urlService.getRedirect("abc123")).thenReturn(Optional.of(CachedUrl.permanent("https://example.com")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        redirectFilter.doFilter(new MockHttpServletRequest("GET", "/abc123"), response, chain);
+
+        // Assert
+        assertEquals(302, response.getStatus());
+        assertEquals("https://example.com", response.getHeader("Location"));
+        assertEquals("no-store", response.getHeader("Cache-Control"));
+        assertNull(chain.getRequest());
+        verify(clickStatsService).recordClick("abc123");
+    }
+
+    @Test
+    @DisplayName("Постоянный редирект должен кэшироваться не дольше срока действия ссылки")
+    void doFilter_WithPermanentRedirect_ShouldSetCacheHeaders() throws Exception {
+        // Arrange
+        CachedUrl link = new CachedUrl("https://example.com", Instant.now().plusSeconds(600), 301, null);
+        when(urlService.getRedirect("abc123")).thenReturn(Optional.of(link));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        redirectFilter.doFilter(new MockHttpServletRequest("GET", "/abc123"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(301, response.getStatus());
+        assertEquals("https://example.com", response.getHeader("Location"));
+        long maxAge = Long.parseLong(response.getHeader("Cache-Control").replace("public, max-age=", ""));
+        assertTrue(maxAge > 590 && maxAge <= 600, response.getHeader("Cache-Control"));
+        assertNotNull(response.getHeader("Expires"));
+        assertNotNull(response.getHeader("ETag"));
+        verify(clickStatsService, never()).recordClick(anyString());
+    }
+
+    @Test
+    @DisplayName("При включенной статистике ссылка без учета переходов должна отдаваться своим кэшируемым кодом")
+    void doFilter_WithPermanentRedirectAndAnalytics_ShouldKeepCacheableStatus() throws Exception {
+        // Arrange
+        when(urlService.getRedirect("abc123")).thenReturn(Optional.of(new CachedUrl("https://example.com", null, 301, null)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        createFilter(true).doFilter(new MockHttpServletRequest("GET", "/abc123"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(301, response.getStatus());
+        assertEquals("public, max-age=86400", response.getHeader("Cache-Control"));
+        assertNotNull(response.getHeader("ETag"));
+        verify(clickStatsService, never()).recordClick(anyString());
+    }
+
+    @Test
+    @DisplayName("Ссылка с учетом переходов должна отдаваться как некэшируемый 302 при кэшируемом коде по умолчанию")
+    void doFilter_WithTrackedLinkAndCacheableDefault_ShouldRedirectWithFound() throws Exception {
+        // Arrange
+        RedirectFilter filter = new RedirectFilter(urlService, clickStatsService, new RedirectPolicy(301, 86_400, true),
+                new UrlShortenerConfig());
+        when(urlService.getRedirect("abc123")).thenReturn(Optional.of(new CachedUrl("https://example.com", null, null, true)));
+        when(urlService.getRedirect("def456")).thenReturn(Optional.of(CachedUrl.permanent("https://example.com/other")));
+        MockHttpServletResponse tracked = new MockHttpServletResponse();
+        MockHttpServletResponse untracked = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/abc123"), tracked, new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("GET", "/def456"), untracked, new MockFilterChain());
+
+        // Assert
+        assertEquals(302, tracked.getStatus());
+        assertEquals("no-store", tracked.getHeader("Cache-Control"));
+        assertNull(tracked.getHeader("ETag"));
+        assertEquals(301, untracked.getStatus());
+        verify(clickStatsService).recordClick("abc123");
+        verify(clickStatsService, never()).recordClick("def456");
+    }
+
+    @Test
+    @DisplayName("Совпавший If-None-Match должен получать 304 без Location")
+    void doFilter_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // Arrange
+        when(urlService.getRedirect("abc123")).thenReturn(Optional.of(new CachedUrl("https://example.com", null, 308, null)));
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        redirectFilter.doFilter(new MockHttpServletRequest("GET", "/abc123"), first, new MockFilterChain());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/abc123");
+        request.addHeader("If-None-Match", "W/" + first.getHeader("ETag"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        redirectFilter.doFilter(request, response, new MockFilterChain());
+
+        // Assert
+        assertEquals(308, first.getStatus());
+        assertEquals(304, response.getStatus());
+        assertNull(response.getHeader("Location"));
+        assertEquals(first.getHeader("ETag"), response.getHeader("ETag"));
+    }
+
+    @Test
+    @DisplayName("HEAD-запрос должен получать редирект, но не учитываться как переход")
+    void doFilter_WithHeadForExistingShortCode_ShouldNotRecordClick() throws Exception {
+        // Arrange
+        when(urlService.getRedirect("abc123")).thenReturn(Optional.of(CachedUrl.permanent("https://example.com")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        redirectFilter.doFilter(new MockHttpServletRequest("HEAD", "/abc123"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(302, response.getStatus());
+        assertEquals("https://example.com", response.getHeader("Location"));
+        verify(clickStatsService, never()).recordClick(anyString());
+    }
+
+    @Test
+    @DisplayName("HEAD-запрос к несуществующему коду должен возвращать 404")
+    void doFilter_WithHeadForUnknownShortCode_ShouldReturnNotFound() throws Exception {
+        // Arrange
+        when(urlService.getRedirect("abc123")).thenReturn(Optional.empty());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        redirectFilter.doFilter(new MockHttpServletRequest("HEAD", "/abc123"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(404, response.getStatus());
+        verify(clickStatsService, never()).recordClick(anyString());
+    }
+
+    @Test
+    @DisplayName("Зарезервированные и не похожие на код пути должны передаваться дальше без поиска")
+    void doFilter_WithNonCodePaths_ShouldPassThrough() throws Exception {
+        for (String path : new String[]{"/health", "/login", "/Static", "/abc123/stats", "/ab", "/abc.123", "/favicon.ico", "/h2-console", "/"}) {
+            // Arrange
+            MockFilterChain chain = new MockFilterChain();
+
+            // Act
+            redirectFilter.doFilter(new MockHttpServletRequest("GET", path), new MockHttpServletResponse(), chain);
+
+            // Assert
+            assertNotNull(chain.getRequest(), path);
+        }
+        verifyNoInteractions(urlService);
+    }
+
+    @Test
+    @DisplayName("POST-запросы должны передаваться дальше")
+    void doFilter_WithPost_ShouldPassThrough() throws Exception {
+        // Arrange
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        redirectFilter.doFilter(new MockHttpServletRequest("POST", "/shorten"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertNotNull(chain.getRequest());
+        verifyNoInteractions(urlService);
+    }
+}
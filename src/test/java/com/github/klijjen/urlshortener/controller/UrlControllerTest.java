@@ -1,20 +1,31 @@
 package com.github.klijjen.urlshortener.controller;
 
+import com.github.klijjen.urlshortener.cache.CachedUrl;
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
 import com.github.klijjen.urlshortener.controller.dto.ShortenRequest;
+import com.github.klijjen.urlshortener.service.AliasConflictException;
+import com.github.klijjen.urlshortener.service.ClickStatsService;
+import com.github.klijjen.urlshortener.service.ShortenCommand;
+import com.github.klijjen.urlshortener.service.ShortenResult;
 import com.github.klijjen.urlshortener.service.UrlService;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeSpaceExhaustedException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -22,6 +33,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @DisplayName("Тесты REST контроллера для сокращения URL")
 @WebMvcTest(UrlController.class)
+@Import({RedirectPolicy.class, UrlShortenerConfig.class})
 class UrlControllerTest {
 
     @Autowired
@@ -33,6 +45,9 @@ class UrlControllerTest {
     @MockBean
     private UrlService urlService;
 
+    @MockBean
+    private ClickStatsService clickStatsService;
+
 
     @Test
     @DisplayName("Должен вернуть короткий URL при валидном оригинальном URL")
@@ -60,14 +75,65 @@ class UrlControllerTest {
         mockMvc.perform(post("/shorten").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isCreated()).andExpect(jsonPath("$.shortUrl").value(expectedShortUrl));
     }
 
+    @Test
+    @DisplayName("Должен вернуть 409, если короткий код занят параллельным запросом")
+    void shortenUrl_WhenConstraintViolated_ShouldReturnConflict() throws Exception {
+        // Arrange
+        ShortenRequest request = new ShortenRequest("https://example.com", null);
+
+        when(urlService.shortenUrl(anyString())).thenThrow(new DataIntegrityViolationException("idx_short_code"));
+
+        // Act & Assert
+        mockMvc.perform(post("/shorten").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isConflict()).andExpect(jsonPath("$.error").value("Конфликт"));
+    }
+
+    @Test
+    @DisplayName("Должен вернуть 503 без подробностей, если свободный короткий код выдать не удалось")
+    void shortenUrl_WhenCodeSpaceExhausted_ShouldReturnServiceUnavailable() throws Exception {
+        // Arrange
+        ShortenRequest request = new ShortenRequest("https://example.com", null);
+
+        when(urlService.shortenUrl(anyString())).thenThrow(new ShortCodeSpaceExhaustedException("Пространство коротких кодов длины 6 исчерпано"));
+
+        // Act & Assert
+        mockMvc.perform(post("/shorten").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isServiceUnavailable()).andExpect(jsonPath("$.message").value("Не удалось выдать короткий код, повторите запрос позже"));
+    }
+
+    @Test
+    @DisplayName("Должен сохранить ссылку под псевдонимом и вернуть 409 со свободными вариантами, если он занят")
+    void shortenUrl_WithAlias_ShouldUseAliasAndReportConflict() throws Exception {
+        // Arrange
+        ShortenRequest request = new ShortenRequest("https://example.com", null, "promo");
+
+        when(urlService.shortenUrlWithAlias("https://example.com", "promo"))
+                .thenReturn("http://localhost:8080/promo")
+                .thenThrow(new AliasConflictException("promo", List.of("promo-1", "promo-2")));
+
+        // Act & Assert
+        mockMvc.perform(post("/shorten").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isCreated()).andExpect(jsonPath("$.shortUrl").value("http://localhost:8080/promo"));
+        mockMvc.perform(post("/shorten").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isConflict()).andExpect(jsonPath("$.suggestions[0]").value("promo-1"));
+    }
+
+    @Test
+    @DisplayName("Должен вернуть 400 при псевдониме с недопустимыми символами")
+    void shortenUrl_WithInvalidAlias_ShouldReturnBadRequest() throws Exception {
+        // Arrange
+        ShortenRequest request = new ShortenRequest("https://example.com", null, "промо");
+
+        // Act & Assert
+        mockMvc.perform(post("/shorten").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Должен вернуть 400 при невалидном URL")
     void shortenUrl_WithInvalidUrl_ShouldReturnBadRequest() throws Exception {
         // Arrange
         ShortenRequest request = new ShortenRequest("invalid-url", null);
 
+        when(urlService.shortenUrl("invalid-url")).thenThrow(new IllegalArgumentException("Неверный формат URL: invalid-url"));
+
         // Act & Assert
-        mockMvc.perform(post("/shorten").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isBadRequest());
+        mockMvc.perform(post("/shorten").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isBadRequest()).andExpect(jsonPath("$.error").value("Ошибка валидации")).andExpect(jsonPath("$.message").value("Неверный формат URL: invalid-url"));
     }
 
     @Test
@@ -103,6 +169,35 @@ class UrlControllerTest {
         mockMvc.perform(post("/shorten").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isBadRequest()).andExpect(jsonPath("$.error").value("Ошибка валидации")).andExpect(jsonPath("$.message").value("Invalid URL format"));
     }
 
+    @Test
+    @DisplayName("Должен вернуть результат для каждого элемента пакета, включая ошибки валидации")
+    void shortenUrls_WithMixedBatch_ShouldReturnPerItemResults() throws Exception {
+        // Arrange
+        List<ShortenRequest> requests = List.of(
+                new ShortenRequest("https://example.com/a", null),
+                new ShortenRequest("https://example.com/c", 2),
+                new ShortenRequest("https://example.com/b", 8));
+
+        when(urlService.shortenUrls(List.of(
+                new ShortenCommand("https://example.com/a", null),
+                new ShortenCommand("https://example.com/b", 8))))
+                .thenReturn(List.of(
+                        ShortenResult.success("https://example.com/a", "http://localhost:8080/abc123"),
+                        ShortenResult.success("https://example.com/b", "http://localhost:8080/abc12345")));
+
+        // Act & Assert
+        mockMvc.perform(post("/shorten/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].shortUrl").value("http://localhost:8080/abc123"))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].error").value("Ошибка валидации"))
+                .andExpect(jsonPath("$[2].shortUrl").value("http://localhost:8080/abc12345"));
+
+        verify(urlService).shortenUrls(List.of(
+                new ShortenCommand("https://example.com/a", null),
+                new ShortenCommand("https://example.com/b", 8)));
+    }
 
     @Test
     @DisplayName("Должен выполнить редирект при валидном коротком коде")
@@ -111,10 +206,11 @@ class UrlControllerTest {
         String shortCode = "abc123";
         String originalUrl = "https://example.com";
 
-        when(urlService.getOriginalUrl(shortCode)).thenReturn(Optional.of(originalUrl));
+        when(urlService.getRedirect(shortCode)).thenReturn(Optional.of(CachedUrl.permanent(originalUrl)));
 
         // Act & Assert
         mockMvc.perform(get("/{shortCode}", shortCode)).andExpect(status().isFound()).andExpect(header().string("Location", originalUrl));
+        verify(clickStatsService).recordClick(shortCode);
     }
 
     @Test
@@ -123,9 +219,32 @@ class UrlControllerTest {
         // Arrange
         String shortCode = "invalid";
 
-        when(urlService.getOriginalUrl(shortCode)).thenReturn(Optional.empty());
+        when(urlService.getRedirect(shortCode)).thenReturn(Optional.empty());
 
         // Act & Assert
         mockMvc.perform(get("/{shortCode}", shortCode)).andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Должен вернуть количество переходов по существующему короткому коду")
+    void getStats_WithExistingShortCode_ShouldReturnClicks() throws Exception {
+        // Arrange
+        String shortCode = "abc123";
+
+        when(urlService.getOriginalUrl(shortCode)).thenReturn(Optional.of("https://example.com"));
+        when(clickStatsService.getClicks(shortCode)).thenReturn(42L);
+
+        // Act & Assert
+        mockMvc.perform(get("/{shortCode}/stats", shortCode)).andExpect(status().isOk()).andExpect(jsonPath("$.shortCode").value(shortCode)).andExpect(jsonPath("$.clicks").value(42));
+    }
+
+    @Test
+    @DisplayName("Должен вернуть 404 при запросе статистики несуществующего кода")
+    void getStats_WithUnknownShortCode_ShouldReturnNotFound() throws Exception {
+        // Arrange
+        when(urlService.getOriginalUrl("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get("/{shortCode}/stats", "missing")).andExpect(status().isNotFound());
+    }
+}
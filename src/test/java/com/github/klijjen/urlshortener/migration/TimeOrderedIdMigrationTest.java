@@ -0,0 +1,59 @@
+package com.github.klijjen.urlshortener.migration;
+
+import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Замена случайных идентификаторов на UUIDv7")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:id-migration;DB_CLOSE_DELAY=-1",
+        "app.migration.time-ordered-ids.batch-size=2",
+        "app.short-code-filter.enabled=false",
+        "app.analytics.enabled=false",
+        "app.expiry.purge.enabled=false",
+        "app.migration.url-hash-backfill.enabled=false"
+})
+class TimeOrderedIdMigrationTest {
+
+    @Autowired
+    private TimeOrderedIdMigration migration;
+
+    @Autowired
+    private UrlRepository urlRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Старые строки получают UUIDv7 и сохраняют данные, новые не меняются")
+    void migrate_ShouldReplaceRandomIds() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("INSERT INTO urls (id, original_url, short_code) VALUES (?, ?, ?)",
+                    UUID.randomUUID(), "https://example.com/legacy/" + i, "legacy" + i);
+        }
+        UrlEntity current = urlRepository.save(new UrlEntity("https://example.com/current", "current1"));
+
+        // Act
+        long updated = migration.migrate();
+
+        // Assert
+        assertEquals(5, updated);
+        List<UrlEntity> all = urlRepository.findAll();
+        assertEquals(6, all.size());
+        assertTrue(all.stream().allMatch(entity -> entity.getId().version() == 7));
+        assertEquals(current.getId(), urlRepository.findByShortCode("current1").orElseThrow().getId());
+        assertEquals("https://example.com/legacy/3",
+                urlRepository.findByShortCode("legacy3").orElseThrow().getOriginalUrl());
+        assertEquals(0, migration.migrate());
+    }
+}
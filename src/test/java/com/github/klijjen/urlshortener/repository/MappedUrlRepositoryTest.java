@@ -0,0 +1,150 @@
+package com.github.klijjen.urlshortener.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование встроенного хранилища ссылок")
+class MappedUrlRepositoryTest {
+    // Маленькие области и индекс, чтобы тесты проходили через границы областей и рост индекса
+    private static final int REGION_SIZE = 4096;
+    private static final int EXPECTED_LINKS = 16;
+
+    @TempDir
+    Path directory;
+
+    private MappedUrlRepository repository;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+
+    private MappedUrlRepository open() {
+        repository = new MappedUrlRepository(directory, EXPECTED_LINKS, REGION_SIZE);
+        return repository;
+    }
+
+    private void fill(MappedUrlRepository repository, int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals("c" + i, repository.insertDeduplicated("c" + i, "https://example.com/page/" + i + "/путь"));
+        }
+    }
+
+    @Test
+    @DisplayName("Сохраненная ссылка находится по коду, чужой код занять нельзя")
+    void insert_ShouldStoreAndRejectTakenCode() {
+        // Arrange
+        MappedUrlRepository repository = open();
+
+        // Act
+        boolean first = repository.insert("promo", "https://example.com", null);
+        boolean second = repository.insert("promo", "https://other.com", null);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(Optional.of("https://example.com"), repository.findOriginalUrl("promo", Instant.now()));
+        assertTrue(repository.existsByShortCode("promo"));
+        assertTrue(repository.findOriginalUrl("missing", Instant.now()).isEmpty());
+        // Символ вне ASCII не должен совпадать с кодом, у которого тот же младший байт
+        assertTrue(repository.findOriginalUrl("promš".replace('š', (char) 0x16F), Instant.now()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Повторное сокращение URL возвращает существующий код, а ссылки без дедупликации в нем не участвуют")
+    void insertDeduplicated_ShouldReturnExistingCode() {
+        // Arrange
+        MappedUrlRepository repository = open();
+        repository.insert("alias", "https://example.com", null);
+
+        // Act
+        String first = repository.insertDeduplicated("abc123", "https://example.com");
+        String repeated = repository.insertDeduplicated("xyz789", "https://example.com");
+        String takenCode = repository.insertDeduplicated("abc123", "https://other.com");
+
+        // Assert
+        assertEquals("abc123", first);
+        assertEquals("abc123", repeated);
+        assertNull(takenCode);
+        assertEquals(Optional.of("abc123"), repository.findShortCodeByUrl("https://example.com"));
+        assertFalse(repository.existsByShortCode("xyz789"));
+    }
+
+    @Test
+    @DisplayName("Истекшая ссылка не находится")
+    void findOriginalUrl_Expired_ShouldReturnEmpty() {
+        // Arrange
+        MappedUrlRepository repository = open();
+        Instant expiresAt = Instant.parse("2030-01-01T00:00:00Z");
+        repository.insert("old123", "https://example.com", expiresAt);
+
+        // Act & Assert
+        assertTrue(repository.findOriginalUrl("old123", expiresAt.minusSeconds(1)).isPresent());
+        assertTrue(repository.findOriginalUrl("old123", expiresAt).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Индекс растет, а журнал переходит в новые области без потери записей")
+    void insert_ManyLinks_ShouldGrowIndexAndLog() throws IOException {
+        // Arrange
+        MappedUrlRepository repository = open();
+
+        // Act
+        fill(repository, 500);
+
+        // Assert
+        assertEquals(500, repository.count());
+        assertTrue(Files.size(directory.resolve("urls.log")) > REGION_SIZE);
+        for (int i = 0; i < 500; i++) {
+            assertEquals(Optional.of("https://example.com/page/" + i + "/путь"), repository.findOriginalUrl("c" + i, Instant.now()));
+            assertEquals(Optional.of("c" + i), repository.findShortCodeByUrl("https://example.com/page/" + i + "/путь"));
+        }
+    }
+
+    @Test
+    @DisplayName("После штатной остановки индекс открывается без перестроения")
+    void reopen_AfterClose_ShouldUseSavedIndex() throws IOException {
+        // Arrange
+        fill(open(), 300);
+        repository.close();
+
+        // Act
+        MappedUrlRepository reopened = open();
+
+        // Assert
+        assertEquals(300, reopened.count());
+        assertEquals(Optional.of("https://example.com/page/42/путь"), reopened.findOriginalUrl("c42", Instant.now()));
+        assertEquals(Optional.of("c299"), reopened.findShortCodeByUrl("https://example.com/page/299/путь"));
+        assertTrue(reopened.insert("c300", "https://example.com/new", null));
+    }
+
+    @Test
+    @DisplayName("После аварийного завершения индекс перестраивается по журналу")
+    void reopen_AfterCrash_ShouldRebuildIndex() {
+        // Arrange: хранилище не закрыто, индексы остались с признаком работающего процесса
+        fill(open(), 300);
+        repository = null;
+
+        // Act
+        MappedUrlRepository reopened = open();
+
+        // Assert
+        assertEquals(300, reopened.count());
+        for (int i = 0; i < 300; i++) {
+            assertTrue(reopened.existsByShortCode("c" + i));
+        }
+        assertEquals("c7", reopened.insertDeduplicated("new", "https://example.com/page/7/путь"));
+    }
+}
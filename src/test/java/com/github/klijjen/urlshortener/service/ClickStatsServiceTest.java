@@ -0,0 +1,105 @@
+package com.github.klijjen.urlshortener.service;
+
+import com.github.klijjen.urlshortener.repository.ClickStatsRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сброс счетчиков выполняется настоящим MERGE на H2 в памяти; таблицы urls и url_stats создаются тестом.
+ */
+@DisplayName("Тестирование сброса статистики переходов")
+class ClickStatsServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ClickStatsService clickStatsService;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:click-stats-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE urls (short_code VARCHAR(255) PRIMARY KEY)");
+        jdbcTemplate.update("INSERT INTO urls (short_code) VALUES ('abc123'), ('def456')");
+        createStatsTable();
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("jdbcTemplate", jdbcTemplate);
+        clickStatsService = new ClickStatsService(beans.getBeanProvider(ClickStatsRepository.class),
+                beans.getBeanProvider(JdbcTemplate.class));
+    }
+
+    private void createStatsTable() {
+        jdbcTemplate.execute("CREATE TABLE url_stats (short_code VARCHAR(255) PRIMARY KEY, clicks BIGINT NOT NULL)");
+    }
+
+    private Long persistedClicks(String shortCode) {
+        return jdbcTemplate.query("SELECT clicks FROM url_stats WHERE short_code = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, shortCode);
+    }
+
+    @Test
+    @DisplayName("Повторные сбросы должны суммировать переходы в url_stats")
+    void flush_Twice_ShouldAccumulateClicks() {
+        // Arrange
+        clickStatsService.recordClick("abc123");
+        clickStatsService.recordClick("abc123");
+        clickStatsService.recordClick("def456");
+
+        // Act
+        clickStatsService.flush();
+        clickStatsService.recordClick("abc123");
+        clickStatsService.flush();
+
+        // Assert
+        assertEquals(3L, persistedClicks("abc123"));
+        assertEquals(1L, persistedClicks("def456"));
+    }
+
+    @Test
+    @DisplayName("Переходы из неудавшейся пачки должны возвращаться в буфер и сохраняться следующим сбросом")
+    void flush_WhenBatchFails_ShouldKeepClicksForNextFlush() {
+        // Arrange
+        clickStatsService.recordClick("abc123");
+        clickStatsService.recordClick("abc123");
+        jdbcTemplate.execute("DROP TABLE url_stats");
+
+        // Act
+        clickStatsService.flush();
+        createStatsTable();
+        clickStatsService.recordClick("abc123");
+        clickStatsService.flush();
+
+        // Assert
+        assertEquals(3L, persistedClicks("abc123"));
+    }
+
+    @Test
+    @DisplayName("Переходы по удаленным ссылкам не должны создавать строк статистики")
+    void flush_WithPurgedCodes_ShouldSkipThem() {
+        // Arrange
+        clickStatsService.recordClick("abc123");
+        clickStatsService.recordClick("def456");
+        clickStatsService.recordClick("gone01");
+        jdbcTemplate.update("DELETE FROM urls WHERE short_code = 'def456'");
+
+        // Act
+        clickStatsService.discard(List.of("def456"));
+        clickStatsService.flush();
+
+        // Assert
+        assertEquals(1L, persistedClicks("abc123"));
+        assertNull(persistedClicks("def456"));
+        assertNull(persistedClicks("gone01"));
+        assertEquals(0, clickStatsService.getClicks("def456"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.klijjen.urlshortener.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Профиль edge целиком: контекст поднимается без DataSource, ссылки сохраняются во встроенное хранилище.
+ */
+@DisplayName("Сервис на встроенном хранилище (профиль edge)")
+@ActiveProfiles("edge")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class EmbeddedUrlServiceImplTest {
+
+    @TempDir
+    static Path storage;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.storage.embedded.path", storage::toString);
+        registry.add("app.storage.embedded.region-size", () -> "1MB");
+    }
+
+    @Autowired
+    private UrlService urlService;
+
+    @Autowired
+    private ClickStatsService clickStatsService;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    @DisplayName("Сокращение, дедупликация и редирект работают без SQL-базы")
+    void shortenAndLookup_ShouldWorkWithoutDatabase() {
+        // Act
+        String shortUrl = urlService.shortenUrl("https://example.com/edge");
+        String repeated = urlService.shortenUrl("https://example.com/edge");
+        String shortCode = shortUrl.substring(shortUrl.lastIndexOf('/') + 1);
+        clickStatsService.recordClick(shortCode);
+
+        // Assert
+        assertInstanceOf(EmbeddedUrlServiceImpl.class, urlService);
+        assertTrue(context.getBeansOfType(DataSource.class).isEmpty());
+        assertEquals(shortUrl, repeated);
+        assertEquals(Optional.of("https://example.com/edge"), urlService.getOriginalUrl(shortCode));
+        // Статистика в профиле edge выключена: счетчики некуда сбросить
+        assertEquals(0, clickStatsService.getClicks(shortCode));
+    }
+
+    @Test
+    @DisplayName("Занятый псевдоним отклоняется со свободными вариантами")
+    void shortenUrlWithAlias_Taken_ShouldSuggestAlternatives() {
+        // Arrange
+        urlService.shortenUrlWithAlias("https://example.com/a", "edge-promo");
+        urlService.shortenUrlWithAlias("https://example.com/b", "edge-promo-1");
+
+        // Act
+        AliasConflictException exception = assertThrows(AliasConflictException.class,
+                () -> urlService.shortenUrlWithAlias("https://example.com/c", "edge-promo"));
+
+        // Assert
+        assertEquals("http://localhost:8080/edge-promo", urlService.shortenUrlWithAlias("https://example.com/a", "edge-promo"));
+        assertEquals(3, exception.getSuggestions().size());
+        assertFalse(exception.getSuggestions().contains("edge-promo-1"));
+    }
+}
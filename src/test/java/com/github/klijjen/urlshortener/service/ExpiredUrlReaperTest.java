@@ -0,0 +1,75 @@
+package com.github.klijjen.urlshortener.service;
+
+import com.github.klijjen.urlshortener.repository.ClickStatsRepository;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование удаления истекших ссылок")
+class ExpiredUrlReaperTest {
+
+    @Mock
+    private UrlRepository urlRepository;
+
+    @Mock
+    private ClickStatsRepository clickStatsRepository;
+
+    @Mock
+    private ClickStatsService clickStatsService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExpiredUrlReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        reaper = new ExpiredUrlReaper(urlRepository, clickStatsRepository, clickStatsService, new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    @DisplayName("Истекшие ссылки должны удаляться вместе со статистикой переходов")
+    void purge_WithExpiredLinks_ShouldDeleteLinksAndStats() {
+        // Arrange
+        List<String> expired = List.of("abc123", "def456");
+        when(urlRepository.findExpiredShortCodes(any(Instant.class), any(Pageable.class))).thenReturn(expired);
+
+        // Act
+        long deleted = reaper.purge();
+
+        // Assert
+        assertEquals(2, deleted);
+        verify(urlRepository).deleteByShortCodes(expired);
+        verify(clickStatsRepository).deleteAllByIdInBatch(expired);
+        verify(clickStatsService).discard(expired);
+    }
+
+    @Test
+    @DisplayName("Без истекших ссылок ничего не должно удаляться")
+    void purge_WithoutExpiredLinks_ShouldDeleteNothing() {
+        // Arrange
+        when(urlRepository.findExpiredShortCodes(any(Instant.class), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        long deleted = reaper.purge();
+
+        // Assert
+        assertEquals(0, deleted);
+        verify(urlRepository, never()).deleteByShortCodes(any());
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.klijjen.urlshortener.service;
+
+import com.github.klijjen.urlshortener.cache.ShortCodeFilter;
+import com.github.klijjen.urlshortener.cache.UrlCache;
+import com.github.klijjen.urlshortener.config.ShortCodeFilterConfig;
+import com.github.klijjen.urlshortener.config.UrlCacheConfig;
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import com.github.klijjen.urlshortener.repository.ReactiveUrlRepository;
+import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.repository.UrlRecord;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+import static com.github.klijjen.urlshortener.Utils.hashUrl;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование реактивного сервиса сокращения URL")
+class ReactiveUrlServiceImplTest {
+    private static final String VALID_URL = "https://example.com/";
+
+    @Mock
+    private ReactiveUrlRepository urlRepository;
+
+    @Mock
+    private ShortCodeGenerator shortCodeGenerator;
+
+    private ReactiveUrlServiceImpl urlService;
+
+    @BeforeEach
+    void setUp() {
+        UrlShortenerConfig config = new UrlShortenerConfig();
+        config.setMinLength(4);
+        config.setDefaultLength(6);
+        config.setMaxLength(12);
+        config.setMaxAttempts(10);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        urlService = new ReactiveUrlServiceImpl(urlRepository, config, new UrlCache(new UrlCacheConfig()),
+                new ShortCodeFilter(new ShortCodeFilterConfig()), shortCodeGenerator,
+                new ShortenValidator(config, meterRegistry), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Новый URL сохраняется под сгенерированным кодом; занятый код заменяется следующим")
+    void shorten_WithCodeCollision_ShouldRetryWithNewCode() {
+        // Arrange
+        when(urlRepository.findShortCodeByUrlHash(hashUrl(VALID_URL))).thenReturn(Mono.empty());
+        when(shortCodeGenerator.generate(6)).thenReturn("taken1", "free12");
+        when(urlRepository.insert(any(UrlEntity.class))).thenAnswer(invocation -> {
+            UrlEntity entity = invocation.getArgument(0);
+            return entity.getShortCode().equals("taken1")
+                    ? Mono.error(new DataIntegrityViolationException("idx_short_code"))
+                    : Mono.empty();
+        });
+
+        // Act
+        String result = urlService.shorten(new ShortenCommand(VALID_URL, null)).block();
+
+        // Assert
+        assertNotNull(result);
+        assertTrue(result.endsWith("/free12"));
+        verify(urlRepository, times(2)).insert(any(UrlEntity.class));
+    }
+
+    @Test
+    @DisplayName("Уже сокращенный URL возвращает существующий код без генерации")
+    void shorten_WithExistingUrl_ShouldReturnExistingCode() {
+        // Arrange
+        when(urlRepository.findShortCodeByUrlHash(hashUrl(VALID_URL))).thenReturn(Mono.just("exist1"));
+
+        // Act
+        String result = urlService.shorten(new ShortenCommand(VALID_URL, null)).block();
+
+        // Assert
+        assertTrue(result.endsWith("/exist1"));
+        verify(shortCodeGenerator, never()).generate(anyInt());
+        verify(urlRepository, never()).insert(any());
+    }
+
+    @Test
+    @DisplayName("Проверки общие с блокирующим сервисом: ошибка приходит в Mono, база не вызывается")
+    void shorten_WithInvalidUrl_ShouldFailWithoutRepositoryCalls() {
+        Mono<String> result = urlService.shorten(new ShortenCommand("invalid-url", null));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, result::block);
+        assertEquals("Неверный формат URL: invalid-url", exception.getMessage());
+        verifyNoInteractions(urlRepository);
+    }
+
+    @Test
+    @DisplayName("Занятый другой ссылкой псевдоним - AliasConflictException со свободными вариантами")
+    void shorten_WithTakenAlias_ShouldSuggestFreeAliases() {
+        // Arrange
+        when(urlRepository.insert(argThat(entity -> entity.getShortCode().equals("go-promo"))))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("idx_short_code")));
+        when(urlRepository.findByShortCode("go-promo")).thenReturn(Mono.just(new UrlRecord("go-promo", "https://other.com")));
+        when(urlRepository.findExistingShortCodes(anyCollection())).thenReturn(Flux.just("go-promo-1"));
+
+        // Act
+        Mono<String> result = urlService.shorten(new ShortenCommand(VALID_URL, null, "go-promo", null));
+
+        // Assert
+        AliasConflictException exception = assertThrows(AliasConflictException.class, result::block);
+        assertEquals(List.of("go-promo-2", "go-promo-3", "go-promo-4"), exception.getSuggestions());
+    }
+
+    @Test
+    @DisplayName("Истекшая ссылка не возвращается, повторный запрос обслуживается из кэша")
+    void getOriginalUrl_WithExpiredLink_ShouldReturnEmptyAndCacheMiss() {
+        // Arrange
+        when(urlRepository.findByShortCode("old123"))
+                .thenReturn(Mono.just(new UrlRecord("old123", VALID_URL, Instant.now().minusSeconds(1))));
+
+        // Act & Assert
+        assertNull(urlService.getOriginalUrl("old123").block());
+        assertNull(urlService.getOriginalUrl("old123").block());
+        verify(urlRepository, times(1)).findByShortCode("old123");
+    }
+}
@@ -1,19 +1,35 @@
 package com.github.klijjen.urlshortener.service;
 
+import com.github.klijjen.urlshortener.cache.ShortCodeFilter;
+import com.github.klijjen.urlshortener.cache.UrlCache;
+import com.github.klijjen.urlshortener.config.ShortCodeFilterConfig;
+import com.github.klijjen.urlshortener.config.UrlCacheConfig;
 import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
 import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.repository.UrlRecord;
 import com.github.klijjen.urlshortener.repository.UrlRepository;
+import com.github.klijjen.urlshortener.service.generator.RandomShortCodeGenerator;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeEncoder;
+import com.github.klijjen.urlshortener.service.generator.ShortCodeSpaceExhaustedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import static com.github.klijjen.urlshortener.Utils.hashUrl;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -26,7 +42,11 @@ class UrlServiceImplTest {
 
     private UrlServiceImpl urlService;
 
-    private final String VALID_URL = "https://example.com";
+    private ShortCodeFilter shortCodeFilter;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private final String VALID_URL = "https://example.com/";
 
     @BeforeEach
     void setUp() {
@@ -36,14 +56,20 @@ class UrlServiceImplTest {
         config.setMaxLength(12);
         config.setMaxAttempts(10);
 
-        urlService = new UrlServiceImpl(urlRepository, config);
+        ShortCodeFilterConfig filterConfig = new ShortCodeFilterConfig();
+        filterConfig.setEnabled(true);
+        shortCodeFilter = new ShortCodeFilter(filterConfig);
+        meterRegistry = new SimpleMeterRegistry();
+        urlService = new UrlServiceImpl(urlRepository, config, new UrlCache(new UrlCacheConfig()), shortCodeFilter,
+                new RandomShortCodeGenerator(urlRepository, shortCodeFilter, new ShortCodeEncoder(config), config, meterRegistry),
+                new ShortenValidator(config, meterRegistry), meterRegistry);
     }
 
     @Test
     @DisplayName("Сокращение валидного URL должно возвращать короткую ссылку")
     void shortenUrl_WithValidUrl_ShouldReturnShortUrl() {
         // Arrange
-        when(urlRepository.findByOriginalUrl(VALID_URL)).thenReturn(Optional.empty());
+        when(urlRepository.findShortCodeByUrlHash(hashUrl(VALID_URL))).thenReturn(Optional.empty());
         when(urlRepository.existsByShortCode(anyString())).thenReturn(false);
         when(urlRepository.save(any(UrlEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -56,7 +82,7 @@ class UrlServiceImplTest {
         String shortCode = result.substring(result.lastIndexOf("/") + 1);
         assertEquals(6, shortCode.length());
 
-        verify(urlRepository).findByOriginalUrl(VALID_URL);
+        verify(urlRepository).findShortCodeByUrlHash(hashUrl(VALID_URL));
         verify(urlRepository).save(any(UrlEntity.class));
     }
 
@@ -65,9 +91,7 @@ class UrlServiceImplTest {
     void shortenUrl_WithExistingUrl_ShouldReturnExistingShortUrl() {
         // Arrange
         String existingShortCode = "abc123";
-        UrlEntity existingEntity = new UrlEntity(VALID_URL, existingShortCode);
-
-        when(urlRepository.findByOriginalUrl(VALID_URL)).thenReturn(Optional.of(existingEntity));
+        when(urlRepository.findShortCodeByUrlHash(hashUrl(VALID_URL))).thenReturn(Optional.of(existingShortCode));
 
         // Act
         String result = urlService.shortenUrl(VALID_URL);
@@ -78,7 +102,70 @@ class UrlServiceImplTest {
         String shortCode = result.substring(result.lastIndexOf("/") + 1);
         assertEquals(existingShortCode, shortCode);
 
-        verify(urlRepository).findByOriginalUrl(VALID_URL);
+        verify(urlRepository).findShortCodeByUrlHash(hashUrl(VALID_URL));
+        verify(urlRepository, never()).save(any(UrlEntity.class));
+    }
+
+    @Test
+    @DisplayName("Эквивалентная запись URL должна находить ссылку, сохраненную для канонического вида")
+    void shortenUrl_WithEquivalentUrl_ShouldDeduplicateByCanonicalForm() {
+        // Arrange
+        String existingShortCode = "abc123";
+        when(urlRepository.findShortCodeByUrlHash(hashUrl(VALID_URL))).thenReturn(Optional.of(existingShortCode));
+
+        // Act
+        String result = urlService.shortenUrl("HTTPS://Example.COM:443");
+
+        // Assert
+        assertTrue(result.endsWith("/" + existingShortCode));
+        verify(urlRepository, never()).save(any(UrlEntity.class));
+    }
+
+    @Test
+    @DisplayName("Параллельное сокращение того же URL должно возвращать уже сохраненную ссылку")
+    void shortenUrl_WhenConcurrentInsertWins_ShouldReturnExistingShortUrl() {
+        // Arrange
+        String existingShortCode = "abc123";
+        when(urlRepository.findShortCodeByUrlHash(hashUrl(VALID_URL)))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(existingShortCode));
+        when(urlRepository.existsByShortCode(anyString())).thenReturn(false);
+        when(urlRepository.save(any(UrlEntity.class))).thenThrow(new DataIntegrityViolationException("idx_url_hash"));
+
+        // Act
+        String result = urlService.shortenUrl(VALID_URL);
+
+        // Assert
+        assertTrue(result.endsWith("/" + existingShortCode));
+    }
+
+    @Test
+    @DisplayName("Пакетное сокращение должно дедуплицировать URL и сохранять новые одной пачкой")
+    void shortenUrls_WithDuplicatesAndExisting_ShouldSaveNewUrlsOnce() {
+        // Arrange
+        String existingUrl = "https://example.com/existing";
+        when(urlRepository.findByUrlHashIn(anyCollection())).thenReturn(List.of(new UrlEntity(existingUrl, "exist1")));
+        when(urlRepository.findExistingShortCodes(anyCollection())).thenReturn(List.of());
+
+        List<ShortenCommand> commands = List.of(
+                new ShortenCommand(VALID_URL, null),
+                new ShortenCommand(existingUrl, null),
+                new ShortenCommand("not-a-valid-url", null),
+                new ShortenCommand(VALID_URL, 8));
+
+        // Act
+        List<ShortenResult> results = urlService.shortenUrls(commands);
+
+        // Assert
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(results.get(0).shortUrl(), results.get(3).shortUrl());
+        assertTrue(results.get(1).shortUrl().endsWith("/exist1"));
+        assertFalse(results.get(2).isSuccess());
+        assertTrue(results.get(2).error().contains("Неверный формат URL"));
+
+        verify(urlRepository).saveAll(argThat(entities -> ((List<?>) entities).size() == 1));
+        verify(urlRepository, never()).existsByShortCode(anyString());
         verify(urlRepository, never()).save(any(UrlEntity.class));
     }
 
@@ -87,7 +174,7 @@ class UrlServiceImplTest {
     void shortenUrl_WithCustomLength_ShouldReturnUrlWithSpecifiedLength() {
         // Arrange
         int customLength = 8;
-        when(urlRepository.findByOriginalUrl(VALID_URL)).thenReturn(Optional.empty());
+        when(urlRepository.findShortCodeByUrlHash(hashUrl(VALID_URL))).thenReturn(Optional.empty());
         when(urlRepository.existsByShortCode(anyString())).thenReturn(false);
         when(urlRepository.save(any(UrlEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -172,9 +259,7 @@ class UrlServiceImplTest {
     void getOriginalUrl_WithExistingShortCode_ShouldReturnOriginalUrl() {
         // Arrange
         String shortCode = "abc123";
-        UrlEntity entity = new UrlEntity(VALID_URL, shortCode);
-
-        when(urlRepository.findByShortCode(shortCode)).thenReturn(Optional.of(entity));
+        when(urlRepository.findRecordByShortCode(shortCode)).thenReturn(Optional.of(new UrlRecord(shortCode, VALID_URL)));
 
         // Act
         Optional<String> result = urlService.getOriginalUrl(shortCode);
@@ -182,7 +267,7 @@ class UrlServiceImplTest {
         // Assert
         assertTrue(result.isPresent());
         assertEquals(VALID_URL, result.get());
-        verify(urlRepository).findByShortCode(shortCode);
+        verify(urlRepository).findRecordByShortCode(shortCode);
     }
 
     @Test
@@ -190,14 +275,68 @@ class UrlServiceImplTest {
     void getOriginalUrl_WithNonExistingShortCode_ShouldReturnEmpty() {
         // Arrange
         String nonExistingCode = "nonexist";
-        when(urlRepository.findByShortCode(nonExistingCode)).thenReturn(Optional.empty());
+        when(urlRepository.findRecordByShortCode(nonExistingCode)).thenReturn(Optional.empty());
 
         // Act
         Optional<String> result = urlService.getOriginalUrl(nonExistingCode);
 
         // Assert
         assertFalse(result.isPresent());
-        verify(urlRepository).findByShortCode(nonExistingCode);
+        verify(urlRepository).findRecordByShortCode(nonExistingCode);
+    }
+
+    @Test
+    @DisplayName("Повторное получение оригинального URL должно обслуживаться из кэша")
+    void getOriginalUrl_RepeatedLookup_ShouldHitRepositoryOnce() {
+        // Arrange
+        String shortCode = "abc123";
+        String missingCode = "missing";
+        when(urlRepository.findRecordByShortCode(shortCode)).thenReturn(Optional.of(new UrlRecord(shortCode, VALID_URL)));
+        when(urlRepository.findRecordByShortCode(missingCode)).thenReturn(Optional.empty());
+
+        // Act
+        urlService.getOriginalUrl(shortCode);
+        Optional<String> result = urlService.getOriginalUrl(shortCode);
+        urlService.getOriginalUrl(missingCode);
+        Optional<String> missing = urlService.getOriginalUrl(missingCode);
+
+        // Assert
+        assertEquals(Optional.of(VALID_URL), result);
+        assertFalse(missing.isPresent());
+        verify(urlRepository, times(1)).findRecordByShortCode(shortCode);
+        verify(urlRepository, times(1)).findRecordByShortCode(missingCode);
+    }
+
+    @Test
+    @DisplayName("Код, отсеченный заполненным фильтром, не должен искаться в базе")
+    void getOriginalUrl_WithCodeRejectedByFilter_ShouldNotQueryRepository() {
+        // Arrange
+        shortCodeFilter.add("abc123");
+        shortCodeFilter.markLoaded();
+        when(urlRepository.findRecordByShortCode("abc123")).thenReturn(Optional.of(new UrlRecord("abc123", VALID_URL)));
+
+        // Act
+        Optional<String> found = urlService.getOriginalUrl("abc123");
+        Optional<String> missing = urlService.getOriginalUrl("zzzzzz");
+
+        // Assert
+        assertEquals(Optional.of(VALID_URL), found);
+        assertFalse(missing.isPresent());
+        verify(urlRepository, never()).findRecordByShortCode("zzzzzz");
+    }
+
+    @Test
+    @DisplayName("Генерация кода при заполненном фильтре не должна проверять отсеченные коды в базе")
+    void generateUniqueShortCode_WithLoadedFilter_ShouldSkipExistenceCheck() {
+        // Arrange
+        shortCodeFilter.markLoaded();
+
+        // Act
+        String result = urlService.generateUniqueShortCode(6);
+
+        // Assert
+        assertEquals(6, result.length());
+        verify(urlRepository, never()).existsByShortCode(anyString());
     }
 
     @Test
@@ -216,6 +355,229 @@ class UrlServiceImplTest {
         verify(urlRepository, times(3)).existsByShortCode(anyString());
     }
 
+    @Test
+    @DisplayName("Ссылка со сроком действия должна сохраняться без дедупликации")
+    void shortenUrl_WithExpiresAt_ShouldSkipDeduplication() {
+        // Arrange
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        when(urlRepository.existsByShortCode(anyString())).thenReturn(false);
+        when(urlRepository.save(any(UrlEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        String result = urlService.shorten(new ShortenCommand(VALID_URL, null, null, expiresAt));
+
+        // Assert
+        assertNotNull(result);
+        verify(urlRepository, never()).findShortCodeByUrlHash(anyString());
+        verify(urlRepository).save(argThat(entity -> entity.getUrlHash() == null && expiresAt.equals(entity.getExpiresAt())));
+    }
+
+    @Test
+    @DisplayName("Срок действия в прошлом должен отклоняться")
+    void shortenUrl_WithPastExpiresAt_ShouldThrowException() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> urlService.shorten(new ShortenCommand(VALID_URL, null, null, Instant.now().minusSeconds(1))));
+
+        assertEquals("Срок действия ссылки должен быть в будущем", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Ссылка с явным кодом редиректа должна сохраняться с ним и без дедупликации")
+    void shortenUrl_WithRedirectStatus_ShouldSaveStatusWithoutDeduplication() {
+        // Arrange
+        when(urlRepository.existsByShortCode(anyString())).thenReturn(false);
+        when(urlRepository.save(any(UrlEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        String result = urlService.shorten(new ShortenCommand(VALID_URL, null, null, null, 302, null));
+
+        // Assert
+        assertNotNull(result);
+        verify(urlRepository, never()).findShortCodeByUrlHash(anyString());
+        verify(urlRepository).save(argThat(entity -> entity.getUrlHash() == null && entity.getRedirectStatus() == 302));
+    }
+
+    @Test
+    @DisplayName("Ссылка с кэшируемым кодом редиректа должна сохраняться без учета переходов по умолчанию")
+    void shortenUrl_WithCacheableRedirectStatus_ShouldSaveStatus() {
+        // Arrange
+        when(urlRepository.existsByShortCode(anyString())).thenReturn(false);
+        when(urlRepository.save(any(UrlEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        String result = urlService.shorten(new ShortenCommand(VALID_URL, null, null, null, 301, null));
+
+        // Assert
+        assertNotNull(result);
+        verify(urlRepository).save(argThat(entity -> entity.getRedirectStatus() == 301 && entity.getAnalytics() == null));
+    }
+
+    @Test
+    @DisplayName("Кэшируемый код редиректа должен отклоняться у ссылки с учетом переходов")
+    void shortenUrl_WithCacheableRedirectStatusAndAnalytics_ShouldThrowException() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> urlService.shorten(new ShortenCommand(VALID_URL, null, null, null, 301, true)));
+
+        assertEquals("Код редиректа 301 кэшируется клиентами, а переходы по ссылке учитываются в статистике: допустим только 302",
+                exception.getMessage());
+        verifyNoInteractions(urlRepository);
+    }
+
+    @Test
+    @DisplayName("Неподдерживаемый код редиректа должен отклоняться")
+    void shortenUrl_WithUnsupportedRedirectStatus_ShouldThrowException() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> urlService.shorten(new ShortenCommand(VALID_URL, null, null, null, 303, null)));
+
+        assertEquals("Код редиректа должен быть одним из: 301, 302, 307, 308", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Истекшая, но еще не удаленная ссылка не должна находиться")
+    void getOriginalUrl_WithExpiredLink_ShouldReturnEmpty() {
+        // Arrange
+        when(urlRepository.findRecordByShortCode("abc123"))
+                .thenReturn(Optional.of(new UrlRecord("abc123", VALID_URL, Instant.now().minusSeconds(1))));
+
+        // Act
+        Optional<String> result = urlService.getOriginalUrl("abc123");
+
+        // Assert
+        assertFalse(result.isPresent());
+    }
+
+    @Test
+    @DisplayName("Свободный псевдоним должен сохраняться одной вставкой без проверки существования")
+    void shortenUrlWithAlias_WithFreeAlias_ShouldInsertOnce() {
+        // Arrange
+        when(urlRepository.save(any(UrlEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        String result = urlService.shortenUrlWithAlias(VALID_URL, "my-promo");
+
+        // Assert
+        assertTrue(result.endsWith("/my-promo"));
+        verify(urlRepository).save(argThat(entity -> entity.getShortCode().equals("my-promo") && entity.getUrlHash() == null));
+        verify(urlRepository, never()).existsByShortCode(anyString());
+        verify(urlRepository, never()).findRecordByShortCode(anyString());
+    }
+
+    @Test
+    @DisplayName("Занятый псевдоним должен приводить к конфликту со свободными вариантами")
+    void shortenUrlWithAlias_WithTakenAlias_ShouldThrowConflictWithSuggestions() {
+        // Arrange
+        when(urlRepository.save(any(UrlEntity.class))).thenThrow(new DataIntegrityViolationException("idx_short_code"));
+        when(urlRepository.findRecordByShortCodeOnPrimary("go-promo")).thenReturn(Optional.of(new UrlRecord("go-promo", "https://other.com")));
+        when(urlRepository.findExistingShortCodes(anyCollection())).thenReturn(List.of("go-promo-1"));
+
+        // Act
+        AliasConflictException exception = assertThrows(AliasConflictException.class,
+                () -> urlService.shortenUrlWithAlias(VALID_URL, "go-promo"));
+
+        // Assert
+        assertEquals(List.of("go-promo-2", "go-promo-3", "go-promo-4"), exception.getSuggestions());
+        verify(urlRepository, times(1)).findExistingShortCodes(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Повторный запрос того же псевдонима для того же URL должен возвращать ссылку")
+    void shortenUrlWithAlias_WithSameUrlRepeated_ShouldReturnShortUrl() {
+        // Arrange
+        when(urlRepository.save(any(UrlEntity.class))).thenThrow(new DataIntegrityViolationException("idx_short_code"));
+        when(urlRepository.findRecordByShortCodeOnPrimary("go-promo")).thenReturn(Optional.of(new UrlRecord("go-promo", VALID_URL)));
+
+        // Act
+        String result = urlService.shortenUrlWithAlias(VALID_URL, "go-promo");
+
+        // Assert
+        assertTrue(result.endsWith("/go-promo"));
+    }
+
+    @Test
+    @DisplayName("Зарезервированный псевдоним должен отклоняться без обращения к базе")
+    void shortenUrlWithAlias_WithReservedAlias_ShouldThrowException() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> urlService.shortenUrlWithAlias(VALID_URL, "Admin"));
+
+        assertEquals("Псевдоним зарезервирован: Admin", exception.getMessage());
+        verifyNoInteractions(urlRepository);
+    }
+
+    @Test
+    @DisplayName("Псевдоним, который мог бы выдать генератор, должен отклоняться")
+    void shortenUrlWithAlias_WithGeneratableAlias_ShouldThrowException() {
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> urlService.shortenUrlWithAlias(VALID_URL, "promo"));
+
+        assertEquals("Псевдоним длиной от 4 до 12 символов должен содержать '-' или '_', чтобы не совпасть с генерируемыми кодами",
+                exception.getMessage());
+        verifyNoInteractions(urlRepository);
+    }
+
+    @Test
+    @DisplayName("Коллизии и ошибки валидации должны учитываться в метриках")
+    void metrics_ShouldCountCollisionsAndValidationFailures() {
+        // Arrange
+        when(urlRepository.existsByShortCode(anyString())).thenReturn(true).thenReturn(false);
+
+        // Act
+        urlService.generateUniqueShortCode(6);
+        assertThrows(IllegalArgumentException.class, () -> urlService.shortenUrl("not-a-valid-url"));
+        assertThrows(IllegalArgumentException.class, () -> urlService.shortenUrl(VALID_URL, 2));
+
+        // Assert
+        assertEquals(1, meterRegistry.get("shortcode.collisions").tag("stage", "generator").tag("attempt", "1").counter().count());
+        assertEquals(1, meterRegistry.get("url.validation.failures").tag("reason", "format").counter().count());
+        assertEquals(1, meterRegistry.get("url.validation.failures").tag("reason", "length").counter().count());
+        assertEquals(2, meterRegistry.get("url.shorten").timer().count());
+        assertEquals(1, meterRegistry.get("shortcode.generate").tag("mode", "single").timer().count());
+    }
+
+    @Test
+    @DisplayName("Коллизии при пакетной генерации должны учитываться в метриках по числу отклоненных кодов")
+    void metrics_ShouldCountBulkGenerationCollisions() {
+        // Arrange
+        when(urlRepository.findExistingShortCodes(anyCollection()))
+                .thenAnswer(invocation -> List.copyOf(invocation.<Collection<String>>getArgument(0)))
+                .thenReturn(List.of());
+
+        List<ShortenCommand> commands = List.of(
+                new ShortenCommand(VALID_URL, null),
+                new ShortenCommand("https://example.com/other", null));
+
+        // Act
+        List<ShortenResult> results = urlService.shortenUrls(commands);
+
+        // Assert
+        assertTrue(results.stream().allMatch(ShortenResult::isSuccess));
+        assertEquals(2, meterRegistry.get("shortcode.collisions").tag("stage", "generator").tag("attempt", "1").counter().count());
+        verify(urlRepository, times(2)).findExistingShortCodes(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Пакет больше числа возможных кодов заданной длины должен отклоняться без генерации")
+    void generateCodes_WhenCountExceedsCodeSpace_ShouldThrowException() {
+        // Arrange
+        UrlShortenerConfig config = new UrlShortenerConfig();
+        config.setAlphabet("ab");
+        config.setMinLength(2);
+        config.setMaxLength(4);
+        RandomShortCodeGenerator generator = new RandomShortCodeGenerator(urlRepository, shortCodeFilter,
+                new ShortCodeEncoder(config), config, meterRegistry);
+
+        // Act & Assert
+        ShortCodeSpaceExhaustedException exception = assertThrows(ShortCodeSpaceExhaustedException.class,
+                () -> generator.generate(2, 5));
+
+        assertTrue(exception.getMessage().contains("а всего их 4"));
+        verifyNoInteractions(urlRepository);
+    }
+
     @Test
     @DisplayName("Генерация уникального короткого кода при превышении максимального количества попыток должна выбрасывать исключение")
     void generateUniqueShortCode_WhenMaxAttemptsExceeded_ShouldThrowException() {
@@ -234,7 +596,7 @@ class UrlServiceImplTest {
     void shortenUrl_WithMinAllowedLength_ShouldWork() {
         // Arrange
         int minLength = 4;
-        when(urlRepository.findByOriginalUrl(VALID_URL)).thenReturn(Optional.empty());
+        when(urlRepository.findShortCodeByUrlHash(hashUrl(VALID_URL))).thenReturn(Optional.empty());
         when(urlRepository.existsByShortCode(anyString())).thenReturn(false);
         when(urlRepository.save(any(UrlEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -251,7 +613,7 @@ class UrlServiceImplTest {
     void shortenUrl_WithMaxAllowedLength_ShouldWork() {
         // Arrange
         int maxLength = 12;
-        when(urlRepository.findByOriginalUrl(VALID_URL)).thenReturn(Optional.empty());
+        when(urlRepository.findShortCodeByUrlHash(hashUrl(VALID_URL))).thenReturn(Optional.empty());
         when(urlRepository.existsByShortCode(anyString())).thenReturn(false);
         when(urlRepository.save(any(UrlEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -267,8 +629,8 @@ class UrlServiceImplTest {
     @DisplayName("Сокращение HTTP URL должно работать корректно")
     void shortenUrl_WithHttpUrl_ShouldWork() {
         // Arrange
-        String httpUrl = "http://example.com";
-        when(urlRepository.findByOriginalUrl(httpUrl)).thenReturn(Optional.empty());
+        String httpUrl = "http://example.com/";
+        when(urlRepository.findShortCodeByUrlHash(hashUrl(httpUrl))).thenReturn(Optional.empty());
         when(urlRepository.existsByShortCode(anyString())).thenReturn(false);
         when(urlRepository.save(any(UrlEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -285,7 +647,7 @@ class UrlServiceImplTest {
     void shortenUrl_WithFtpUrl_ShouldWork() {
         // Arrange
         String ftpUrl = "ftp://example.com/file.txt";
-        when(urlRepository.findByOriginalUrl(ftpUrl)).thenReturn(Optional.empty());
+        when(urlRepository.findShortCodeByUrlHash(hashUrl(ftpUrl))).thenReturn(Optional.empty());
         when(urlRepository.existsByShortCode(anyString())).thenReturn(false);
         when(urlRepository.save(any(UrlEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
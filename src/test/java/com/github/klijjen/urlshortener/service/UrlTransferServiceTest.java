@@ -0,0 +1,192 @@
+package com.github.klijjen.urlshortener.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.klijjen.urlshortener.cache.ShortCodeFilter;
+import com.github.klijjen.urlshortener.config.ShortCodeFilterConfig;
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import com.github.klijjen.urlshortener.repository.UrlEntity;
+import com.github.klijjen.urlshortener.repository.UrlRecord;
+import com.github.klijjen.urlshortener.repository.UrlRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.github.klijjen.urlshortener.Utils.hashUrl;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование выгрузки и загрузки ссылок в NDJSON")
+class UrlTransferServiceTest {
+
+    @Mock
+    private UrlRepository urlRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UrlTransferService transferService;
+
+    @BeforeEach
+    void setUp() {
+        transferService = new UrlTransferService(urlRepository, new ShortCodeFilter(new ShortCodeFilterConfig()),
+                new ShortenValidator(new UrlShortenerConfig(), new SimpleMeterRegistry()), new TransactionTemplate(transactionManager), new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    @DisplayName("Выгрузка должна писать по одной записи на строку")
+    void exportTo_ShouldWriteOneRecordPerLine() throws Exception {
+        // Arrange
+        when(urlRepository.findRecordsAfter(eq(""), any(Pageable.class))).thenReturn(List.of(
+                new UrlRecord("abc123", "https://example.com/a"),
+                new UrlRecord("def456", "https://example.com/b")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = transferService.exportTo(out);
+
+        // Assert
+        assertEquals(2, exported);
+        assertEquals("{\"shortCode\":\"abc123\",\"originalUrl\":\"https://example.com/a\"}\n"
+                + "{\"shortCode\":\"def456\",\"originalUrl\":\"https://example.com/b\"}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Загрузка должна пропускать существующие коды и отклонять невалидные строки")
+    @SuppressWarnings("unchecked")
+    void importFrom_WithExistingAndInvalidLines_ShouldSaveOnlyNewRecords() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"shortCode":"abc123","originalUrl":"https://example.com/a"}
+                {"shortCode":"exists","originalUrl":"https://example.com/b"}
+                not json
+                {"shortCode":"bad/code","originalUrl":"https://example.com/c"}
+                {"shortCode":"Stats","originalUrl":"https://example.com/c"}
+
+                {"shortCode":"def456","originalUrl":"https://example.com/a"}
+                {"shortCode":"old789","originalUrl":"https://example.com/d","expiresAt":"2000-01-01T00:00:00Z"}
+                """;
+        when(urlRepository.findExistingShortCodes(anyCollection())).thenReturn(List.of("exists"));
+        when(urlRepository.findExistingUrlHashes(anyCollection())).thenReturn(List.of());
+
+        // Act
+        UrlTransferService.ImportResult result = transferService.importFrom(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(new UrlTransferService.ImportResult(2, 2, 3), result);
+
+        ArgumentCaptor<List<UrlEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(urlRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertNotNull(saved.getValue().get(0).getUrlHash());
+        assertNull(saved.getValue().get(1).getUrlHash());
+    }
+
+    @Test
+    @DisplayName("Загрузка должна хэшировать и сохранять URL в каноническом виде")
+    @SuppressWarnings("unchecked")
+    void importFrom_WithNonCanonicalUrl_ShouldStoreCanonicalForm() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"shortCode":"abc123","originalUrl":"HTTPS://Example.com:443"}
+                """;
+        when(urlRepository.findExistingUrlHashes(anyCollection())).thenReturn(List.of());
+
+        // Act
+        transferService.importFrom(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        ArgumentCaptor<List<UrlEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(urlRepository).saveAll(saved.capture());
+        assertEquals("https://example.com/", saved.getValue().get(0).getOriginalUrl());
+        assertEquals(hashUrl("https://example.com/"), saved.getValue().get(0).getUrlHash());
+    }
+
+    @Test
+    @DisplayName("Загрузка должна сохранять признак учета переходов и отклонять его с кэшируемым кодом")
+    @SuppressWarnings("unchecked")
+    void importFrom_WithAnalyticsFlag_ShouldKeepItWithoutDeduplication() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"shortCode":"abc123","originalUrl":"https://example.com/a","redirectStatus":301,"analytics":false}
+                {"shortCode":"def456","originalUrl":"https://example.com/b","redirectStatus":301,"analytics":true}
+                """;
+        when(urlRepository.findExistingUrlHashes(anyCollection())).thenReturn(List.of());
+
+        // Act
+        UrlTransferService.ImportResult result = transferService.importFrom(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(new UrlTransferService.ImportResult(1, 0, 1), result);
+        ArgumentCaptor<List<UrlEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(urlRepository).saveAll(saved.capture());
+        assertEquals(Boolean.FALSE, saved.getValue().get(0).getAnalytics());
+        assertNull(saved.getValue().get(0).getUrlHash());
+    }
+
+    @Test
+    @DisplayName("Загрузка должна отклонять слишком длинную строку и продолжать со следующей")
+    @SuppressWarnings("unchecked")
+    void importFrom_WithOversizedLine_ShouldCountItAsFailed() throws Exception {
+        // Arrange
+        String ndjson = "{\"shortCode\":\"abc123\",\"originalUrl\":\"https://example.com/" + "a".repeat(100_000) + "\"}\n"
+                + "{\"shortCode\":\"def456\",\"originalUrl\":\"https://example.com/b\"}\r\n";
+        when(urlRepository.findExistingUrlHashes(anyCollection())).thenReturn(List.of());
+
+        // Act
+        UrlTransferService.ImportResult result = transferService.importFrom(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(new UrlTransferService.ImportResult(1, 0, 1), result);
+        ArgumentCaptor<List<UrlEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(urlRepository).saveAll(saved.capture());
+        assertEquals("def456", saved.getValue().get(0).getShortCode());
+    }
+
+    @Test
+    @DisplayName("Конфликт пачки с параллельной вставкой должен сохранять ее записи по одной")
+    @SuppressWarnings("unchecked")
+    void importFrom_WhenBatchConflicts_ShouldFallBackToSingleInserts() throws Exception {
+        // Arrange
+        String ndjson = """
+                {"shortCode":"abc123","originalUrl":"https://example.com/a"}
+                {"shortCode":"def456","originalUrl":"https://example.com/b"}
+                """;
+        when(urlRepository.findExistingUrlHashes(anyCollection())).thenReturn(List.of());
+        when(urlRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // Act
+        UrlTransferService.ImportResult result = transferService.importFrom(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(new UrlTransferService.ImportResult(1, 1, 0), result);
+        ArgumentCaptor<List<UrlEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(urlRepository, times(3)).saveAll(saved.capture());
+        assertEquals("abc123", saved.getAllValues().get(1).get(0).getShortCode());
+    }
+}
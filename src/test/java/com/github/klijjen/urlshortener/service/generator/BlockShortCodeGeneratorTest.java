@@ -0,0 +1,133 @@
+package com.github.klijjen.urlshortener.service.generator;
+
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Тестирование генератора коротких кодов на блоках счетчика")
+class BlockShortCodeGeneratorTest {
+
+    @Mock
+    private CodeBlockAllocator allocator;
+
+    private BlockShortCodeGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        UrlShortenerConfig config = new UrlShortenerConfig();
+        config.setMaxLength(12);
+        config.setBlockSize(3);
+
+        generator = new BlockShortCodeGenerator(allocator, new ShortCodeEncoder(config), config);
+    }
+
+    @Test
+    @DisplayName("Коды должны выдаваться из выделенного блока без повторов")
+    void generate_WithinBlocks_ShouldReturnDistinctCodes() {
+        // Arrange
+        when(allocator.allocate(eq("short-code-6"), anyInt())).thenReturn(0L).thenReturn(3L);
+
+        // Act
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            codes.add(generator.generate(6));
+        }
+
+        // Assert
+        assertEquals(5, codes.size());
+        assertTrue(codes.contains("000000"));
+        assertTrue(codes.contains("000004"));
+        verify(allocator, times(2)).allocate("short-code-6", 3);
+    }
+
+    @Test
+    @DisplayName("Для каждой длины кода должен использоваться свой счетчик")
+    void generate_WithDifferentLengths_ShouldUseSeparateSequences() {
+        // Arrange
+        when(allocator.allocate(anyString(), anyInt())).thenReturn(61L);
+
+        // Act
+        String shortCode = generator.generate(4);
+        String longCode = generator.generate(12);
+
+        // Assert
+        assertEquals("000Z", shortCode);
+        assertEquals("00000000000Z", longCode);
+        verify(allocator).allocate("short-code-4", 3);
+        verify(allocator).allocate("short-code-12", 3);
+    }
+
+    @Test
+    @DisplayName("Экземпляры с общим счетчиком в базе должны выдавать непересекающиеся коды")
+    void generate_OnSeveralNodes_ShouldNotProduceDuplicates() throws Exception {
+        // Arrange: общий счетчик заменяет таблицу code_sequences, каждый генератор - отдельный экземпляр сервиса
+        AtomicLong sequence = new AtomicLong();
+        CodeBlockAllocator sharedAllocator = new CodeBlockAllocator(null, null) {
+            @Override
+            public long allocate(String sequenceName, int size) {
+                return sequence.getAndAdd(size);
+            }
+        };
+        UrlShortenerConfig config = new UrlShortenerConfig();
+        config.setBlockSize(7);
+        List<BlockShortCodeGenerator> nodes = List.of(
+                new BlockShortCodeGenerator(sharedAllocator, new ShortCodeEncoder(config), config),
+                new BlockShortCodeGenerator(sharedAllocator, new ShortCodeEncoder(config), config));
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                BlockShortCodeGenerator node = nodes.get(thread % nodes.size());
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        assertTrue(codes.add(node.generate(6)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(8000, codes.size());
+    }
+
+    @Test
+    @DisplayName("Исчерпание пространства кодов должно выбрасывать исключение")
+    void generate_WhenCodeSpaceExhausted_ShouldThrowException() {
+        // Arrange
+        when(allocator.allocate(anyString(), anyInt())).thenReturn(62L * 62 * 62 * 62);
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> generator.generate(4));
+
+        assertEquals("Пространство коротких кодов длины 4 исчерпано", exception.getMessage());
+    }
+}
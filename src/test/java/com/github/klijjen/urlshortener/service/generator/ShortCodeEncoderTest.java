@@ -0,0 +1,68 @@
+package com.github.klijjen.urlshortener.service.generator;
+
+import com.github.klijjen.urlshortener.config.UrlShortenerConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тестирование кодировщика коротких кодов")
+class ShortCodeEncoderTest {
+
+    private ShortCodeEncoder createEncoder(String alphabet) {
+        UrlShortenerConfig config = new UrlShortenerConfig();
+        config.setMaxLength(12);
+        config.setAlphabet(alphabet);
+        return new ShortCodeEncoder(config);
+    }
+
+    @Test
+    @DisplayName("Кодирование в base62 должно дополнять код слева до нужной длины")
+    void encode_WithBase62_ShouldPadToLength() {
+        // Arrange
+        ShortCodeEncoder encoder = createEncoder(new UrlShortenerConfig().getAlphabet());
+
+        // Act & Assert
+        assertEquals("000000", encoder.encode(0, 6));
+        assertEquals("00000Z", encoder.encode(61, 6));
+        assertEquals("000010", encoder.encode(62, 6));
+        assertEquals("ZZZZ", encoder.encode(62L * 62 * 62 * 62 - 1, 4));
+    }
+
+    @Test
+    @DisplayName("Емкость пространства кодов должна ограничиваться значением long")
+    void capacity_ForLongCodes_ShouldSaturate() {
+        // Arrange
+        ShortCodeEncoder encoder = createEncoder(new UrlShortenerConfig().getAlphabet());
+
+        // Act & Assert
+        assertEquals(62L * 62 * 62 * 62 * 62 * 62, encoder.capacity(6));
+        assertEquals(Long.MAX_VALUE, encoder.capacity(11));
+    }
+
+    @Test
+    @DisplayName("Кодирование должно использовать настроенный алфавит")
+    void encode_WithBase58_ShouldUseConfiguredAlphabet() {
+        // Arrange
+        ShortCodeEncoder encoder = createEncoder("123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz");
+
+        // Act & Assert
+        assertEquals(58, encoder.base());
+        assertEquals("1112", encoder.encode(1, 4));
+        assertEquals("1121", encoder.encode(58, 4));
+    }
+
+    @Test
+    @DisplayName("Алфавит с повторяющимися символами должен отклоняться")
+    void constructor_WithDuplicateCharacters_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> createEncoder("0123456789aa"));
+    }
+
+    @Test
+    @DisplayName("Алфавит с небезопасными для URL символами должен отклоняться")
+    void constructor_WithUnsafeCharacters_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> createEncoder("abc/"));
+    }
+}